@@ -1,6 +1,8 @@
 package com.lelyliliana;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
 
 /**
  * Árbol AVL de enteros con menú de consola.
@@ -13,8 +15,9 @@ public class ArbolAVLMenu {
     static class Nodo {
         int valor;
         int altura;      // altura del nodo (hoja = 1)
+        int tam;         // cantidad de nodos del subárbol (hoja = 1)
         Nodo izq, der;
-        Nodo(int v) { this.valor = v; this.altura = 1; }
+        Nodo(int v) { this.valor = v; this.altura = 1; this.tam = 1; }
     }
 
     // ======== ÁRBOL AVL ========
@@ -26,6 +29,10 @@ public class ArbolAVLMenu {
         private int balance(Nodo n) { return (n == null) ? 0 : altura(n.izq) - altura(n.der); }
         private void actualizarAltura(Nodo n) { n.altura = 1 + Math.max(altura(n.izq), altura(n.der)); }
 
+        // --- utilidades de tamaño (árbol de estadísticas de orden) ---
+        private int tam(Nodo n) { return (n == null) ? 0 : n.tam; }
+        private void actualizarTam(Nodo n) { n.tam = 1 + tam(n.izq) + tam(n.der); }
+
         // --- rotaciones ---
         private Nodo rotacionDerecha(Nodo y) {
             Nodo x = y.izq;
@@ -33,9 +40,9 @@ public class ArbolAVLMenu {
             // rotar
             x.der = y;
             y.izq = T2;
-            // actualizar alturas
-            actualizarAltura(y);
-            actualizarAltura(x);
+            // actualizar alturas y tamaños (primero el hijo, luego la nueva raíz)
+            actualizarAltura(y); actualizarTam(y);
+            actualizarAltura(x); actualizarTam(x);
             return x;
         }
         private Nodo rotacionIzquierda(Nodo x) {
@@ -44,15 +51,16 @@ public class ArbolAVLMenu {
             // rotar
             y.izq = x;
             x.der = T2;
-            // actualizar alturas
-            actualizarAltura(x);
-            actualizarAltura(y);
+            // actualizar alturas y tamaños (primero el hijo, luego la nueva raíz)
+            actualizarAltura(x); actualizarTam(x);
+            actualizarAltura(y); actualizarTam(y);
             return y;
         }
 
         // --- rebalancear un nodo ---
         private Nodo rebalancear(Nodo n) {
             actualizarAltura(n);
+            actualizarTam(n);
             int bf = balance(n);
 
             // Caso Izq-Izq
@@ -139,10 +147,250 @@ public class ArbolAVLMenu {
         private void postorden(Nodo n, List<Integer> out){ if(n==null) return; postorden(n.izq,out); postorden(n.der,out); out.add(n.valor);}
 
         // --- utilitarios (opcional) ---
-        public int cantidadNodos() { return contar(raiz); }
-        private int contar(Nodo n){ return (n==null)?0:1+contar(n.izq)+contar(n.der); }
+        public int cantidadNodos() { return tam(raiz); } // O(1): el tamaño se mantiene en cada nodo
         public int altura(){ return altura(raiz); }
 
+        // --- estadísticas de orden (O(log n) gracias a 'tam') ---
+
+        /** k-ésimo menor valor, con k en 1..cantidadNodos() (k = 1 es el mínimo). */
+        public int select(int k) {
+            if (k < 1 || k > tam(raiz))
+                throw new IllegalArgumentException("k debe estar entre 1 y " + tam(raiz));
+            Nodo n = raiz;
+            while (true) {
+                int izq = tam(n.izq);
+                if (k == izq + 1) return n.valor;
+                if (k <= izq) n = n.izq;
+                else { k -= izq + 1; n = n.der; }
+            }
+        }
+
+        /** Cantidad de valores estrictamente menores que x (posición 0-based que tendría x). */
+        public int rank(int x) {
+            int r = 0;
+            Nodo n = raiz;
+            while (n != null) {
+                if (x <= n.valor) n = n.izq;
+                else { r += tam(n.izq) + 1; n = n.der; }
+            }
+            return r;
+        }
+
+        /** Cantidad de valores menores o iguales que x. */
+        private int rankHasta(int x) {
+            int r = 0;
+            Nodo n = raiz;
+            while (n != null) {
+                if (x < n.valor) n = n.izq;
+                else { r += tam(n.izq) + 1; n = n.der; }
+            }
+            return r;
+        }
+
+        /** Cantidad de valores en el intervalo cerrado [a, b] (0 si a > b). */
+        public int countRange(int a, int b) {
+            if (a > b) return 0;
+            return rankHasta(b) - rank(a);
+        }
+
+        /**
+         * Iterador perezoso (en orden ascendente) sobre los valores de [a, b].
+         * Usa una pila explícita: O(log n) para ubicar el inicio y O(1) amortizado por elemento.
+         * No debe modificarse el árbol mientras se recorre.
+         */
+        public Iterator<Integer> rangeIterator(int a, int b) {
+            return new Iterator<Integer>() {
+                private final Deque<Nodo> pila = new ArrayDeque<>();
+                {
+                    // bajar desde la raíz dejando en la pila los ancestros con valor >= a
+                    Nodo n = raiz;
+                    while (n != null) {
+                        if (n.valor < a) n = n.der;
+                        else { pila.push(n); n = n.izq; }
+                    }
+                }
+                @Override public boolean hasNext() {
+                    return a <= b && !pila.isEmpty() && pila.peek().valor <= b;
+                }
+                @Override public Integer next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    Nodo n = pila.pop();
+                    for (Nodo m = n.der; m != null; m = m.izq) pila.push(m);
+                    return n.valor;
+                }
+            };
+        }
+
+        /** Foto de solo lectura del árbol en disposición de Eytzinger (búsquedas sin seguir punteros). */
+        public IndiceEytzinger congelar() {
+            int[] orden = new int[tam(raiz)];
+            llenarInorden(raiz, orden, 0);
+            return new IndiceEytzinger(orden);
+        }
+        private int llenarInorden(Nodo n, int[] out, int i) {
+            if (n == null) return i;
+            i = llenarInorden(n.izq, out, i);
+            out[i++] = n.valor;
+            return llenarInorden(n.der, out, i);
+        }
+
+        // --- operaciones en bloque (join / split) ---
+        // Todas se apoyan en join(L, k, R): une dos AVL con L < k < R bajando solo por el
+        // lado más alto, en O(|altura(L) - altura(R)| + 1). Las operaciones de conjuntos
+        // dividen y vencen, y las dos mitades se resuelven en paralelo (ForkJoinPool común)
+        // cuando el trabajo supera UMBRAL_PARALELO nodos.
+
+        private static final int UMBRAL_PARALELO = 1 << 13;
+
+        // resultado de dividir un subárbol por una clave
+        private static final class Division {
+            final Nodo menores, igual, mayores; // 'igual' queda como nodo suelto (o null)
+            Division(Nodo menores, Nodo igual, Nodo mayores) {
+                this.menores = menores; this.igual = igual; this.mayores = mayores;
+            }
+        }
+
+        /** Construye en O(n) un AVL perfectamente balanceado a partir de valores estrictamente crecientes. */
+        public static ArbolAVL buildFromSorted(int[] ordenados) {
+            for (int i = 1; i < ordenados.length; i++) {
+                if (ordenados[i - 1] >= ordenados[i])
+                    throw new IllegalArgumentException("Los valores deben ser crecientes y sin duplicados (posición " + i + ")");
+            }
+            ArbolAVL t = new ArbolAVL();
+            t.raiz = t.construir(ordenados, 0, ordenados.length - 1);
+            return t;
+        }
+
+        /** Agrega a este árbol todos los valores de 'otro' (que no se modifica). */
+        public void union(ArbolAVL otro) { raiz = unir(raiz, copiar(otro.raiz)); }
+
+        /** Deja en este árbol solo los valores que también están en 'otro' (que no se modifica). */
+        public void intersection(ArbolAVL otro) { raiz = intersecar(raiz, copiar(otro.raiz)); }
+
+        /** Quita de este árbol los valores que están en 'otro' (que no se modifica). */
+        public void difference(ArbolAVL otro) { raiz = restar(raiz, copiar(otro.raiz)); }
+
+        /**
+         * Divide el árbol en O(log n): este árbol se queda con los valores menores que 'clave'
+         * y se devuelve un árbol nuevo con los valores mayores o iguales.
+         */
+        public ArbolAVL split(int clave) {
+            Division d = dividir(raiz, clave);
+            raiz = d.menores;
+            ArbolAVL mayores = new ArbolAVL();
+            mayores.raiz = (d.igual == null) ? d.mayores : join(null, d.igual, d.mayores);
+            return mayores;
+        }
+
+        private Nodo construir(int[] a, int lo, int hi) {
+            if (lo > hi) return null;
+            int mid = (lo + hi) >>> 1;
+            Nodo n = new Nodo(a[mid]);
+            if (hi - lo + 1 < UMBRAL_PARALELO) {
+                n.izq = construir(a, lo, mid - 1);
+                n.der = construir(a, mid + 1, hi);
+            } else {
+                Nodo[] hijos = ambos(hi - lo + 1,
+                        () -> construir(a, lo, mid - 1),
+                        () -> construir(a, mid + 1, hi));
+                n.izq = hijos[0];
+                n.der = hijos[1];
+            }
+            actualizarAltura(n); actualizarTam(n);
+            return n;
+        }
+
+        private Nodo copiar(Nodo n) {
+            if (n == null) return null;
+            Nodo c = new Nodo(n.valor);
+            c.izq = copiar(n.izq);
+            c.der = copiar(n.der);
+            c.altura = n.altura;
+            c.tam = n.tam;
+            return c;
+        }
+
+        // une l < k < r reutilizando el nodo k
+        private Nodo join(Nodo l, Nodo k, Nodo r) {
+            int hl = altura(l), hr = altura(r);
+            if (hl > hr + 1) {
+                l.der = join(l.der, k, r);
+                return rebalancear(l);
+            }
+            if (hr > hl + 1) {
+                r.izq = join(l, k, r.izq);
+                return rebalancear(r);
+            }
+            k.izq = l;
+            k.der = r;
+            actualizarAltura(k); actualizarTam(k);
+            return k;
+        }
+
+        // une l < r sin nodo intermedio: se usa el máximo de l como pivote
+        private Nodo join2(Nodo l, Nodo r) {
+            if (l == null) return r;
+            if (r == null) return l;
+            Nodo max = l;
+            while (max.der != null) max = max.der;
+            Division d = dividir(l, max.valor);
+            return join(d.menores, d.igual, r);
+        }
+
+        private Division dividir(Nodo t, int clave) {
+            if (t == null) return new Division(null, null, null);
+            Nodo izq = t.izq, der = t.der;
+            if (clave == t.valor) {
+                t.izq = t.der = null;
+                t.altura = 1; t.tam = 1;
+                return new Division(izq, t, der);
+            }
+            if (clave < t.valor) {
+                Division d = dividir(izq, clave);
+                return new Division(d.menores, d.igual, join(d.mayores, t, der));
+            }
+            Division d = dividir(der, clave);
+            return new Division(join(izq, t, d.menores), d.igual, d.mayores);
+        }
+
+        // a y b no comparten nodos; ambos se consumen
+        private Nodo unir(Nodo a, Nodo b) {
+            if (a == null) return b;
+            if (b == null) return a;
+            int trabajo = tam(a) + tam(b);
+            Nodo ai = a.izq, ad = a.der;
+            Division d = dividir(b, a.valor);
+            Nodo[] r = ambos(trabajo, () -> unir(ai, d.menores), () -> unir(ad, d.mayores));
+            return join(r[0], a, r[1]);
+        }
+
+        private Nodo intersecar(Nodo a, Nodo b) {
+            if (a == null || b == null) return null;
+            int trabajo = tam(a) + tam(b);
+            Nodo ai = a.izq, ad = a.der;
+            Division d = dividir(b, a.valor);
+            Nodo[] r = ambos(trabajo, () -> intersecar(ai, d.menores), () -> intersecar(ad, d.mayores));
+            return (d.igual != null) ? join(r[0], a, r[1]) : join2(r[0], r[1]);
+        }
+
+        private Nodo restar(Nodo a, Nodo b) {
+            if (a == null) return null;
+            if (b == null) return a;
+            int trabajo = tam(a) + tam(b);
+            Nodo bi = b.izq, bd = b.der;
+            Division d = dividir(a, b.valor);
+            Nodo[] r = ambos(trabajo, () -> restar(d.menores, bi), () -> restar(d.mayores, bd));
+            return join2(r[0], r[1]);
+        }
+
+        // evalúa dos subproblemas independientes, en paralelo si el trabajo lo justifica
+        private Nodo[] ambos(int trabajo, Supplier<Nodo> izq, Supplier<Nodo> der) {
+            if (trabajo < UMBRAL_PARALELO) return new Nodo[] { izq.get(), der.get() };
+            ForkJoinTask<Nodo> tarea = ForkJoinTask.adapt(izq::get).fork();
+            Nodo d = der.get();
+            return new Nodo[] { tarea.join(), d };
+        }
+
         // Vista por niveles (BFS) sin nulls
         public String nivelesComoString() {
             if (raiz == null) return "(árbol vacío)";
@@ -179,6 +427,8 @@ public class ArbolAVLMenu {
             System.out.println("5. Buscar un valor");
             System.out.println("6. Recorridos");
             System.out.println("7. Ver árbol por niveles");
+            System.out.println("8. Estadísticas de orden (k-ésimo, rango, intervalo)");
+            System.out.println("9. Cargar una lista en bloque (ordena y une un árbol ya balanceado)");
             System.out.println("0. Salir");
             System.out.print("Elige una opción: ");
             String op = sc.nextLine().trim();
@@ -188,23 +438,15 @@ public class ArbolAVLMenu {
                     arbol.vaciar();
                     System.out.println("Árbol vaciado.");
                     break;
-                case "2":
-                    System.out.print("Ingresa la lista (separada por comas): ");
-                    String linea = sc.nextLine();
-                    String[] partes = linea.split(",");
+                case "2": {
+                    // una inserción por valor, en el orden dado (se ven las rotaciones del AVL)
                     int insOk = 0, insDup = 0;
-                    for (String p : partes) {
-                        String t = p.trim();
-                        if (t.isEmpty()) continue;
-                        try {
-                            int v = Integer.parseInt(t);
-                            if (arbol.insertar(v)) insOk++; else insDup++;
-                        } catch (NumberFormatException e) {
-                            System.out.println("Valor ignorado (no entero): " + t);
-                        }
+                    for (int v : leerLista(sc)) {
+                        if (arbol.insertar(v)) insOk++; else insDup++;
                     }
                     System.out.println("Insertados: " + insOk + " | Duplicados ignorados: " + insDup);
                     break;
+                }
                 case "3":
                     System.out.print("Valor a insertar: ");
                     try {
@@ -240,6 +482,19 @@ public class ArbolAVLMenu {
                 case "7":
                     System.out.println(arbol.nivelesComoString());
                     break;
+                case "8":
+                    subMenuEstadisticas(sc, arbol);
+                    break;
+                case "9": {
+                    // carga en bloque: ordenar, construir en O(n) y unir con el árbol actual
+                    int[] vals = leerLista(sc);
+                    int[] ordenados = Arrays.stream(vals).sorted().distinct().toArray();
+                    int antes = arbol.cantidadNodos();
+                    arbol.union(ArbolAVL.buildFromSorted(ordenados));
+                    int insOk = arbol.cantidadNodos() - antes, insDup = vals.length - insOk;
+                    System.out.println("Insertados: " + insOk + " | Duplicados ignorados: " + insDup);
+                    break;
+                }
                 case "0":
                     salir = true;
                     break;
@@ -252,6 +507,70 @@ public class ArbolAVLMenu {
         sc.close();
     }
 
+    // Lista separada por comas; los valores no enteros se avisan y se ignoran
+    private static int[] leerLista(Scanner sc) {
+        System.out.print("Ingresa la lista (separada por comas): ");
+        String[] partes = sc.nextLine().split(",");
+        int[] vals = new int[partes.length];
+        int leidos = 0;
+        for (String p : partes) {
+            String t = p.trim();
+            if (t.isEmpty()) continue;
+            try {
+                vals[leidos++] = Integer.parseInt(t);
+            } catch (NumberFormatException e) {
+                leidos--;
+                System.out.println("Valor ignorado (no entero): " + t);
+            }
+        }
+        return Arrays.copyOf(vals, leidos);
+    }
+
+    private static void subMenuEstadisticas(Scanner sc, ArbolAVL arbol) {
+        if (arbol.estaVacio()) {
+            System.out.println("El árbol está vacío. Inserta elementos primero.");
+            return;
+        }
+        System.out.println("\n--- ESTADÍSTICAS DE ORDEN ---");
+        System.out.println("1) k-ésimo menor (select)");
+        System.out.println("2) Rango de un valor (cuántos son menores)");
+        System.out.println("3) Contar y listar valores en [a, b]");
+        System.out.print("Elige: ");
+        String r = sc.nextLine().trim();
+        try {
+            switch (r) {
+                case "1": {
+                    System.out.print("k (1.." + arbol.cantidadNodos() + "): ");
+                    int k = Integer.parseInt(sc.nextLine().trim());
+                    System.out.println("El " + k + "-ésimo menor es: " + arbol.select(k));
+                    break;
+                }
+                case "2": {
+                    System.out.print("Valor: ");
+                    int x = Integer.parseInt(sc.nextLine().trim());
+                    System.out.println("Hay " + arbol.rank(x) + " valores menores que " + x + ".");
+                    break;
+                }
+                case "3": {
+                    System.out.print("a: ");
+                    int a = Integer.parseInt(sc.nextLine().trim());
+                    System.out.print("b: ");
+                    int b = Integer.parseInt(sc.nextLine().trim());
+                    List<Integer> res = new ArrayList<>();
+                    arbol.rangeIterator(a, b).forEachRemaining(res::add);
+                    System.out.println("Valores en [" + a + ", " + b + "]: " + arbol.countRange(a, b) + " -> " + res);
+                    break;
+                }
+                default:
+                    System.out.println("Opción inválida.");
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Debes ingresar un entero.");
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
     private static void subMenuRecorridos(Scanner sc, ArbolAVL arbol) {
         if (arbol.estaVacio()) {
             System.out.println("El árbol está vacío. Inserta elementos primero.");
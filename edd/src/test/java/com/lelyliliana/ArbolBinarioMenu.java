@@ -17,31 +17,125 @@ public class ArbolBinarioMenu {
         Nodo(int v) { this.valor = v; }
     }
 
+    // ======== ESTRATEGIAS DE BALANCEO ========
+    // NINGUNO:   BST clásico (con claves ordenadas degenera en una lista).
+    // SCAPEGOAT: árbol "chivo expiatorio": cuando una inserción queda demasiado profunda
+    //            se reconstruye perfectamente el subárbol desbalanceado; altura O(log n)
+    //            y costo amortizado O(log n), sin guardar datos extra en los nodos.
+    enum Balanceo { NINGUNO, SCAPEGOAT }
+
     // ======== ÁRBOL BINARIO DE BÚSQUEDA ========
     static class ArbolBinarioBusqueda {
+        // factor de balance del modo SCAPEGOAT: ningún hijo puede tener más de ALFA * tam(padre) nodos
+        private static final double ALFA = 2.0 / 3.0;
+
         private Nodo raiz;
+        private final Balanceo balanceo;
+        private int cantidad;      // nodos actuales
+        private int maxCantidad;   // máximo desde la última reconstrucción total (SCAPEGOAT)
+
+        ArbolBinarioBusqueda() { this(Balanceo.NINGUNO); }
+        ArbolBinarioBusqueda(Balanceo balanceo) { this.balanceo = balanceo; }
 
-        public void vaciar() { raiz = null; }
+        public Balanceo balanceo() { return balanceo; }
+
+        public void vaciar() { raiz = null; cantidad = 0; maxCantidad = 0; }
 
         public boolean estaVacio() { return raiz == null; }
 
+        public int cantidadNodos() { return cantidad; }
+
         public boolean insertar(int v) {
             if (raiz == null) {
                 raiz = new Nodo(v);
+                cantidad = maxCantidad = 1;
                 return true;
             }
+            // en modo SCAPEGOAT se recuerda el camino para buscar el chivo expiatorio
+            List<Nodo> camino = (balanceo == Balanceo.SCAPEGOAT) ? new ArrayList<>() : null;
             Nodo actual = raiz, padre = null;
             while (actual != null) {
                 padre = actual;
                 if (v == actual.valor) return false; // no permitir duplicados
+                if (camino != null) camino.add(actual);
                 if (v < actual.valor) actual = actual.izq;
                 else actual = actual.der;
             }
-            if (v < padre.valor) padre.izq = new Nodo(v);
-            else padre.der = new Nodo(v);
+            Nodo nuevo = new Nodo(v);
+            if (v < padre.valor) padre.izq = nuevo;
+            else padre.der = nuevo;
+            cantidad++;
+            maxCantidad = Math.max(maxCantidad, cantidad);
+
+            if (camino != null && camino.size() > alturaPermitida(cantidad)) {
+                reconstruirChivoExpiatorio(camino, nuevo);
+            }
             return true;
         }
 
+        // profundidad máxima tolerada: log_{1/ALFA}(n)
+        private static int alturaPermitida(int n) {
+            return (int) Math.floor(Math.log(n) / Math.log(1.0 / ALFA));
+        }
+
+        // sube por el camino hasta el primer ancestro desbalanceado y reconstruye su subárbol
+        private void reconstruirChivoExpiatorio(List<Nodo> camino, Nodo nuevo) {
+            Nodo hijo = nuevo;
+            int tamHijo = 1;
+            for (int i = camino.size() - 1; i >= 0; i--) {
+                Nodo p = camino.get(i);
+                Nodo hermano = (p.izq == hijo) ? p.der : p.izq;
+                int tamP = 1 + tamHijo + contar(hermano);
+                if (tamHijo > ALFA * tamP) {
+                    Nodo nuevoSub = reconstruir(p, tamP);
+                    if (i == 0) raiz = nuevoSub;
+                    else if (camino.get(i - 1).izq == p) camino.get(i - 1).izq = nuevoSub;
+                    else camino.get(i - 1).der = nuevoSub;
+                    return;
+                }
+                hijo = p;
+                tamHijo = tamP;
+            }
+        }
+
+        // cantidad de nodos de un subárbol (iterativo)
+        private static int contar(Nodo n) {
+            if (n == null) return 0;
+            int c = 0;
+            Deque<Nodo> pila = new ArrayDeque<>();
+            pila.push(n);
+            while (!pila.isEmpty()) {
+                Nodo x = pila.pop();
+                c++;
+                if (x.izq != null) pila.push(x.izq);
+                if (x.der != null) pila.push(x.der);
+            }
+            return c;
+        }
+
+        // aplana el subárbol en orden y lo vuelve a armar perfectamente balanceado
+        private static Nodo reconstruir(Nodo sub, int tam) {
+            Nodo[] orden = new Nodo[tam];
+            int k = 0;
+            Deque<Nodo> pila = new ArrayDeque<>();
+            Nodo a = sub;
+            while (a != null || !pila.isEmpty()) {
+                while (a != null) { pila.push(a); a = a.izq; }
+                a = pila.pop();
+                orden[k++] = a;
+                a = a.der;
+            }
+            return armar(orden, 0, tam - 1);
+        }
+        private static Nodo armar(Nodo[] orden, int lo, int hi) {
+            if (lo > hi) return null;
+            int mid = (lo + hi) >>> 1;
+            Nodo n = orden[mid];
+            n.izq = armar(orden, lo, mid - 1);
+            n.der = armar(orden, mid + 1, hi);
+            return n;
+        }
+
         public boolean contiene(int v) {
             Nodo a = raiz;
             while (a != null) {
@@ -82,9 +176,47 @@ public class ArbolBinarioMenu {
                 if (padreSuc.izq == suc) padreSuc.izq = suc.der;
                 else padreSuc.der = suc.der;
             }
+            cantidad--;
+            // SCAPEGOAT: tras muchas eliminaciones se reconstruye todo el árbol
+            if (balanceo == Balanceo.SCAPEGOAT && cantidad < ALFA * maxCantidad) {
+                raiz = (cantidad == 0) ? null : reconstruir(raiz, cantidad);
+                maxCantidad = cantidad;
+            }
             return true;
         }
 
+        /** Foto de solo lectura del árbol en disposición de Eytzinger (búsquedas sin seguir punteros). */
+        public IndiceEytzinger congelar() {
+            int[] orden = new int[cantidad];
+            int k = 0;
+            Deque<Nodo> pila = new ArrayDeque<>(); // inorden iterativo: el árbol puede estar degenerado
+            Nodo a = raiz;
+            while (a != null || !pila.isEmpty()) {
+                while (a != null) { pila.push(a); a = a.izq; }
+                a = pila.pop();
+                orden[k++] = a.valor;
+                a = a.der;
+            }
+            return new IndiceEytzinger(orden);
+        }
+
+        // altura (cantidad de niveles), calculada por niveles para no desbordar la pila en árboles degenerados
+        public int altura() {
+            if (raiz == null) return 0;
+            int h = 0;
+            Queue<Nodo> q = new ArrayDeque<>();
+            q.add(raiz);
+            while (!q.isEmpty()) {
+                for (int i = q.size(); i > 0; i--) {
+                    Nodo n = q.poll();
+                    if (n.izq != null) q.add(n.izq);
+                    if (n.der != null) q.add(n.der);
+                }
+                h++;
+            }
+            return h;
+        }
+
         // ======== RECORRIDOS ========
         public List<Integer> inorden() {
             List<Integer> res = new ArrayList<>();
@@ -158,14 +290,19 @@ public class ArbolBinarioMenu {
             System.out.println("5. Buscar un valor");
             System.out.println("6. Recorridos");
             System.out.println("7. Ver árbol por niveles");
+            System.out.println("8. Benchmark: inserción de claves ordenadas (con y sin balanceo)");
             System.out.println("0. Salir");
             System.out.print("Elige una opción: ");
             String op = sc.nextLine().trim();
 
             switch (op) {
                 case "1":
-                    arbol.vaciar();
-                    System.out.println("Árbol vacío. (Creado/Reseteado)");
+                    System.out.print("Balanceo (0 = ninguno, 1 = scapegoat) [" + arbol.balanceo().ordinal() + "]: ");
+                    String modo = sc.nextLine().trim();
+                    if (modo.equals("0")) arbol = new ArbolBinarioBusqueda(Balanceo.NINGUNO);
+                    else if (modo.equals("1")) arbol = new ArbolBinarioBusqueda(Balanceo.SCAPEGOAT);
+                    else arbol.vaciar();
+                    System.out.println("Árbol vacío. (Creado/Reseteado, balanceo: " + arbol.balanceo() + ")");
                     break;
                 case "2":
                     System.out.print("Ingresa la lista (separada por comas): ");
@@ -219,6 +356,9 @@ public class ArbolBinarioMenu {
                 case "7":
                     System.out.println(arbol.nivelesComoString());
                     break;
+                case "8":
+                    benchmarkInsercionOrdenada();
+                    break;
                 case "0":
                     salir = true;
                     break;
@@ -231,6 +371,26 @@ public class ArbolBinarioMenu {
         sc.close();
     }
 
+    // Inserta 1..n en orden creciente (el peor caso de un BST) y luego busca cada clave.
+    private static void benchmarkInsercionOrdenada() {
+        System.out.println("\n--- BENCHMARK: claves ordenadas ---");
+        System.out.printf("%8s %-10s %12s %12s %8s%n", "n", "balanceo", "insertar ms", "buscar ms", "altura");
+        for (int n : new int[] { 1_000, 10_000, 30_000 }) {
+            for (Balanceo b : Balanceo.values()) {
+                ArbolBinarioBusqueda t = new ArbolBinarioBusqueda(b);
+                long t0 = System.nanoTime();
+                for (int v = 1; v <= n; v++) t.insertar(v);
+                long t1 = System.nanoTime();
+                int encontrados = 0;
+                for (int v = 1; v <= n; v++) if (t.contiene(v)) encontrados++;
+                long t2 = System.nanoTime();
+                if (encontrados != n) throw new IllegalStateException("Faltan claves en modo " + b);
+                System.out.printf("%8d %-10s %12.1f %12.1f %8d%n", n, b,
+                        (t1 - t0) / 1e6, (t2 - t1) / 1e6, t.altura());
+            }
+        }
+    }
+
     private static void subMenuRecorridos(Scanner sc, ArbolBinarioBusqueda arbol) {
         if (arbol.estaVacio()) {
             System.out.println("El árbol está vacío. Inserta elementos primero.");
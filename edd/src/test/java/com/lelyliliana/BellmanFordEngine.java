@@ -0,0 +1,320 @@
+package com.lelyliliana;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Caminos mínimos desde un origen con pesos negativos, sobre el mismo CsrGraph que
+ * DijkstraEngine y JohnsonApsp.
+ *
+ *  - run(s): Bellman–Ford con cola (SPFA). Solo se relajan los arcos de vértices cuya
+ *    distancia cambió, y termina apenas la cola se vacía.
+ *  - runParallel(s, pool): rondas de Bellman–Ford en paralelo. En cada ronda cada vértice
+ *    toma el mínimo de sus arcos entrantes desde vértices que cambiaron en la ronda anterior
+ *    (formato "pull" sobre el grafo invertido: cada vértice lo escribe una sola tarea, sin
+ *    sincronización). Termina cuando una ronda no cambia nada.
+ * Ciclos negativos: todo ciclo en el grafo de padres tiene peso negativo, y si hay un ciclo
+ * negativo alcanzable desde s, termina apareciendo entre los padres. Se busca uno en O(n)
+ * cada n relajaciones (SPFA) o en cada ronda (paralelo), sin esperar las n rondas del
+ * algoritmo clásico. negativeCycle() devuelve sus vértices en orden (v0 -> v1 -> ... -> v0),
+ * y null si no hay.
+ *
+ * Igual que DijkstraEngine, una instancia no es segura entre hilos (runParallel usa el pool
+ * internamente) y los arreglos de trabajo se crean una sola vez.
+ */
+public class BellmanFordEngine {
+
+    static final double INF = Double.POSITIVE_INFINITY;
+
+    final CsrGraph g;
+    private final double[] dist;
+    private final int[] parent, parentEdge;
+    private final int[] cola;       // cola circular de n casillas
+    private final boolean[] enCola;
+    private int[] ciclo;
+    private int[] marca; // búsqueda de ciclos en el grafo de padres
+    private long relajaciones;
+
+    // para las rondas paralelas: grafo invertido y, por arco invertido, el arco original
+    private CsrGraph inverso;
+    private int[] arcoOriginal;
+    private double[] anterior;
+    private boolean[] cambio, cambioSiguiente;
+
+    BellmanFordEngine(CsrGraph g) {
+        this.g = g;
+        int n = g.n;
+        dist = new double[n];
+        parent = new int[n];
+        parentEdge = new int[n];
+        cola = new int[n];
+        enCola = new boolean[n];
+    }
+
+    // ======= SPFA =======
+
+    /** Caminos mínimos desde s. Devuelve false si hay un ciclo negativo alcanzable desde s. */
+    boolean run(int s) {
+        validar(s);
+        int n = g.n;
+        reiniciar(s);
+        Arrays.fill(enCola, false);
+        int[] offsets = g.offsets, targets = g.targets;
+        double[] weights = g.weights;
+        int cabeza = 0, tam = 0;
+        long revision = n; // próxima búsqueda de ciclo (una cada n relajaciones: O(1) amortizado)
+        cola[0] = s; tam = 1; enCola[s] = true;
+        while (tam > 0) {
+            int u = cola[cabeza];
+            cabeza = cabeza + 1 == n ? 0 : cabeza + 1;
+            tam--;
+            enCola[u] = false;
+            double du = dist[u];
+            for (int e = offsets[u], fin = offsets[u + 1]; e < fin; e++) {
+                int v = targets[e];
+                double nd = du + weights[e];
+                if (nd < dist[v]) {
+                    relajaciones++;
+                    dist[v] = nd; parent[v] = u; parentEdge[v] = e;
+                    if (relajaciones >= revision) {
+                        if ((ciclo = cicloDePadres()) != null) return false;
+                        revision = relajaciones + n;
+                    }
+                    if (!enCola[v]) {
+                        int fin2 = cabeza + tam;
+                        cola[fin2 >= n ? fin2 - n : fin2] = v;
+                        tam++;
+                        enCola[v] = true;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    // ======= Rondas en paralelo =======
+
+    /** Bellman–Ford por rondas, cada ronda en paralelo sobre los vértices. Mismo resultado que run. */
+    boolean runParallel(int s, ForkJoinPool pool) {
+        validar(s);
+        int n = g.n;
+        if (inverso == null) invertir();
+        reiniciar(s);
+        anterior = anterior == null ? new double[n] : anterior;
+        cambio = cambio == null ? new boolean[n] : cambio;
+        cambioSiguiente = cambioSiguiente == null ? new boolean[n] : cambioSiguiente;
+        Arrays.fill(cambio, false);
+        cambio[s] = true;
+        int bloque = Math.max(1024, n / (8 * pool.getParallelism()));
+        int bloques = (n + bloque - 1) / bloque;
+        int[] offsets = inverso.offsets, targets = inverso.targets;
+        double[] weights = inverso.weights;
+        long[] relajadas = new long[bloques];
+        while (true) {
+            System.arraycopy(dist, 0, anterior, 0, n);
+            boolean[] activos = cambio, siguientes = cambioSiguiente;
+            AtomicBoolean hubo = new AtomicBoolean();
+            pool.submit(() -> IntStream.range(0, bloques).parallel().forEach(b -> {
+                boolean local = false;
+                long r = 0;
+                for (int v = b * bloque, fin = Math.min(n, v + bloque); v < fin; v++) {
+                    siguientes[v] = false;
+                    double dv = anterior[v];
+                    int mejorArco = -1;
+                    for (int e = offsets[v], f = offsets[v + 1]; e < f; e++) {
+                        int u = targets[e];
+                        if (!activos[u]) continue;
+                        double nd = anterior[u] + weights[e];
+                        if (nd < dv) { dv = nd; mejorArco = e; }
+                    }
+                    if (mejorArco >= 0) {
+                        dist[v] = dv; parent[v] = targets[mejorArco]; parentEdge[v] = arcoOriginal[mejorArco];
+                        siguientes[v] = true;
+                        local = true;
+                        r++;
+                    }
+                }
+                relajadas[b] += r;
+                if (local) hubo.set(true);
+            })).join();
+            cambio = siguientes;
+            cambioSiguiente = activos;
+            if (!hubo.get()) break;
+            if ((ciclo = cicloDePadres()) != null) break;
+        }
+        for (long r : relajadas) relajaciones += r;
+        return ciclo == null;
+    }
+
+    private void invertir() {
+        int n = g.n, m = g.edges();
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < m; e++) offsets[g.targets[e] + 1]++;
+        for (int v = 0; v < n; v++) offsets[v + 1] += offsets[v];
+        int[] pos = Arrays.copyOf(offsets, n);
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        arcoOriginal = new int[m];
+        for (int u = 0; u < n; u++) {
+            for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) {
+                int p = pos[g.targets[e]]++;
+                targets[p] = u;
+                weights[p] = g.weights[e];
+                arcoOriginal[p] = e;
+            }
+        }
+        inverso = new CsrGraph(n, offsets, targets, weights);
+    }
+
+    // ======= Resultados =======
+
+    double dist(int v) { return dist[v]; }
+
+    int parent(int v) { return parent[v]; }
+
+    int parentEdge(int v) { return parentEdge[v]; }
+
+    /** Relajaciones exitosas de la última consulta. */
+    long relaxations() { return relajaciones; }
+
+    /** Vértices del ciclo negativo encontrado (v0 -> v1 -> ... -> v0), o null si no hubo. */
+    int[] negativeCycle() { return ciclo == null ? null : ciclo.clone(); }
+
+    /** Peso total del ciclo negativo encontrado (0 si no hubo). */
+    double negativeCycleWeight() {
+        if (ciclo == null) return 0;
+        double w = 0;
+        for (int v : ciclo) w += g.weights[parentEdge[v]];
+        return w;
+    }
+
+    /**
+     * Camino origen -> v en 'ruta'; devuelve su largo (0 si v es inalcanzable). Solo tiene
+     * sentido si la última consulta no encontró un ciclo negativo.
+     */
+    int path(int v, int[] ruta) {
+        if (ciclo != null) throw new IllegalStateException("Hay un ciclo negativo: las rutas no están definidas");
+        if (dist[v] == INF) return 0;
+        int largoRuta = 0;
+        for (int x = v; x != -1; x = parent[x]) largoRuta++;
+        int i = largoRuta;
+        for (int x = v; x != -1; x = parent[x]) ruta[--i] = x;
+        return largoRuta;
+    }
+
+    private void validar(int v) {
+        if (v < 0 || v >= g.n) throw new IllegalArgumentException("Vértice fuera de rango: " + v);
+    }
+
+    private void reiniciar(int s) {
+        Arrays.fill(dist, INF);
+        Arrays.fill(parent, -1);
+        Arrays.fill(parentEdge, -1);
+        dist[s] = 0;
+        ciclo = null;
+        relajaciones = 0;
+    }
+
+    // Recorre el grafo de padres desde cada vértice marcando con el número de inicio;
+    // volver a una marca del mismo recorrido es un ciclo. O(n) en total.
+    private int[] cicloDePadres() {
+        int n = g.n;
+        if (marca == null) marca = new int[n];
+        Arrays.fill(marca, -1);
+        for (int i = 0; i < n; i++) {
+            int x = i;
+            while (x != -1 && marca[x] == -1) { marca[x] = i; x = parent[x]; }
+            if (x == -1 || marca[x] != i) continue;
+            int cantidad = 1;
+            for (int y = parent[x]; y != x; y = parent[y]) cantidad++;
+            int[] c = new int[cantidad];
+            int y = x;
+            for (int k = cantidad - 1; k >= 0; k--) { c[k] = y; y = parent[y]; }
+            return c;
+        }
+        return null;
+    }
+
+    // ======= Benchmark =======
+    // Uso: java BellmanFordEngine [n=200000] [grado=8]
+    //      java BellmanFordEngine grafo.csrg [origen=0]
+    // Grafo con pesos negativos sin ciclos negativos (pesos = base + p(u) - p(v)), luego con
+    // un ciclo negativo agregado. Compara SPFA, rondas paralelas y Dijkstra con potenciales.
+    // Con un .csrg (ver CsrGraph) corre SPFA y rondas paralelas desde el origen dado.
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].endsWith(".csrg")) {
+            desdeArchivo(CsrGraph.read(Paths.get(args[0])), args.length > 1 ? Integer.parseInt(args[1]) : 0);
+            return;
+        }
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int grado = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(nucleos);
+        CsrGraph g = JohnsonApsp.grafoConPotencial(n, grado, new Random(1));
+        System.out.printf("== Bellman–Ford: n = %d, m = %d, %d núcleos ==%n", n, g.edges(), nucleos);
+
+        BellmanFordEngine bf = new BellmanFordEngine(g);
+        long t0 = System.nanoTime();
+        if (!bf.run(0)) throw new IllegalStateException("Ciclo negativo inesperado");
+        double segSpfa = (System.nanoTime() - t0) / 1e9;
+        double[] ref = new double[n];
+        for (int v = 0; v < n; v++) ref[v] = bf.dist(v);
+        long relSpfa = bf.relaxations();
+
+        long t1 = System.nanoTime();
+        if (!bf.runParallel(0, pool)) throw new IllegalStateException("Ciclo negativo inesperado");
+        double segPar = (System.nanoTime() - t1) / 1e9;
+        for (int v = 0; v < n; v++) {
+            if (bf.dist(v) != ref[v]) throw new IllegalStateException("SPFA y rondas paralelas no coinciden en " + v);
+        }
+        System.out.printf("%-30s %8.3f s  (%d relajaciones)%n", "SPFA", segSpfa, relSpfa);
+        System.out.printf("%-30s %8.3f s  (%d relajaciones)%n", "rondas en paralelo", segPar, bf.relaxations());
+
+        // mismo grafo con un ciclo negativo: 0 -> a -> b -> 0 con peso total -1
+        int a = 1 + n / 3, b = 1 + 2 * n / 3;
+        int m = g.edges();
+        int[] src = new int[m + 3], dst = new int[m + 3];
+        double[] w = new double[m + 3];
+        for (int u = 0; u < n; u++)
+            for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) { src[e] = u; dst[e] = g.targets[e]; w[e] = g.weights[e]; }
+        src[m] = 0; dst[m] = a; w[m] = 1;
+        src[m + 1] = a; dst[m + 1] = b; w[m + 1] = 1;
+        src[m + 2] = b; dst[m + 2] = 0; w[m + 2] = -3;
+        BellmanFordEngine conCiclo = new BellmanFordEngine(CsrGraph.fromEdges(n, src, dst, w, m + 3));
+        long t2 = System.nanoTime();
+        boolean ok = conCiclo.run(0);
+        double segCiclo = (System.nanoTime() - t2) / 1e9;
+        if (ok) throw new IllegalStateException("No se detectó el ciclo negativo");
+        System.out.printf("%-30s %8.3f s  ciclo de %d vértices, peso %.0f%n", "SPFA con ciclo negativo",
+                segCiclo, conCiclo.negativeCycle().length, conCiclo.negativeCycleWeight());
+        pool.shutdown();
+    }
+
+    private static void desdeArchivo(CsrGraph g, int s) {
+        if (s < 0 || s >= g.n) throw new IllegalArgumentException("Origen fuera de rango: " + s);
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(nucleos);
+        System.out.printf("== Bellman–Ford: n = %d, m = %d, origen %d, %d núcleos ==%n", g.n, g.edges(), s, nucleos);
+        BellmanFordEngine bf = new BellmanFordEngine(g);
+        for (int modo = 0; modo < 2; modo++) {
+            long t0 = System.nanoTime();
+            boolean ok = modo == 0 ? bf.run(s) : bf.runParallel(s, pool);
+            double seg = (System.nanoTime() - t0) / 1e9;
+            String nombre = modo == 0 ? "SPFA" : "rondas en paralelo";
+            if (!ok) {
+                System.out.printf("%-30s %8.3f s  ciclo negativo de %d vértices, peso %.0f%n", nombre, seg,
+                        bf.negativeCycle().length, bf.negativeCycleWeight());
+                continue;
+            }
+            int alcanzables = 0;
+            for (int v = 0; v < g.n; v++) if (bf.dist(v) < INF) alcanzables++;
+            System.out.printf("%-30s %8.3f s  (%d relajaciones, %d vértices alcanzables)%n", nombre, seg,
+                    bf.relaxations(), alcanzables);
+        }
+        pool.shutdown();
+    }
+}
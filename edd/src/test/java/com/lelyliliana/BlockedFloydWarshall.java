@@ -0,0 +1,269 @@
+package com.lelyliliana;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Motor de caminos mínimos entre todos los pares (APSP), no interactivo, para matrices
+ * grandes. Calcula lo mismo que FloydWarshallPasoAPaso (dist + next para reconstruir
+ * rutas, mismo centinela INF) pero:
+ *  - La matriz es un único long[] de n*n en orden por filas (dist[i*n + j]), sin un
+ *    arreglo por fila; next es un int[] con el mismo orden.
+ *  - Floyd–Warshall por bloques (tiles) de B x B: para cada bloque diagonal kb
+ *      1) se cierra el bloque (kb, kb) consigo mismo,
+ *      2) se actualizan los bloques de la fila kb y de la columna kb usando el bloque diagonal,
+ *      3) se actualizan los bloques restantes (ib, jb) con (ib, kb) y (kb, jb).
+ *    Cada bloque se recorre B veces seguidas mientras está en caché, en lugar de barrer
+ *    toda la matriz para cada k.
+ *  - Modo paralelo (solveParallel): dentro de cada kb, los bloques de las fases 2 y 3 no
+ *    dependen entre sí y se reparten en un ForkJoinPool; solo la fase 1 es secuencial.
+ *
+ * Ciclos negativos: las distancias que pasan por un ciclo negativo se acotan en -INF
+ * (así nunca desbordan, aunque el ciclo se recorra muchas veces), y los vértices con
+ * dist[v][v] < 0 quedan marcados en negativeCycleVertices().
+ *
+ * El main compara el tiempo contra el triple ciclo de FloydWarshallPasoAPaso.
+ */
+public class BlockedFloydWarshall {
+
+    static final long INF = FloydWarshallPasoAPaso.INF;
+    static final int BLOQUE = 64; // 64x64 long = 32 KB: un bloque cabe en L1/L2
+
+    // ======= Resultado =======
+    static class Result {
+        final int n;
+        final long[] dist; // dist[i*n + j]
+        final int[] next;  // next[i*n + j]: siguiente vértice en la ruta i -> j, o -1
+
+        Result(int n, long[] dist, int[] next) {
+            this.n = n; this.dist = dist; this.next = next;
+        }
+
+        long dist(int i, int j) { return dist[i * n + j]; }
+
+        int next(int i, int j) { return next[i * n + j]; }
+
+        boolean hasNegativeCycle() {
+            for (int v = 0; v < n; v++) if (dist[v * n + v] < 0) return true;
+            return false;
+        }
+
+        /** v está marcado si pertenece a (o alcanza y vuelve desde) un ciclo negativo. */
+        boolean[] negativeCycleVertices() {
+            boolean[] r = new boolean[n];
+            for (int v = 0; v < n; v++) r[v] = dist[v * n + v] < 0;
+            return r;
+        }
+
+        /** Ruta u -> v (vacía si no existe), igual que reconstructPath. */
+        List<Integer> path(int u, int v) {
+            List<Integer> path = new ArrayList<>();
+            if (next[u * n + v] == -1) return path;
+            int cur = u; path.add(cur);
+            while (cur != v) {
+                cur = next[cur * n + v];
+                if (cur == -1) { path.clear(); return path; }
+                path.add(cur);
+            }
+            return path;
+        }
+    }
+
+    // ======= Entrada =======
+
+    /** Copia la matriz de adyacencia a la forma plana e inicializa next como initNext. */
+    static Result fromMatrix(long[][] adyacencia) {
+        int n = adyacencia.length;
+        if ((long) n * n > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("Matriz demasiado grande para un arreglo plano: n = " + n);
+        long[] dist = new long[n * n];
+        int[] next = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            if (adyacencia[i].length != n) throw new IllegalArgumentException("La matriz debe ser cuadrada (fila " + i + ")");
+            for (int j = 0; j < n; j++) {
+                long d = adyacencia[i][j];
+                dist[i * n + j] = d;
+                next[i * n + j] = (d < INF || (i == j && d == 0)) ? j : -1;
+            }
+        }
+        return new Result(n, dist, next);
+    }
+
+    // ======= Algoritmo =======
+
+    static Result run(long[][] adyacencia) { return run(adyacencia, BLOQUE); }
+
+    static Result run(long[][] adyacencia, int bloque) {
+        Result r = fromMatrix(adyacencia);
+        solve(r, bloque);
+        return r;
+    }
+
+    /** Floyd–Warshall por bloques sobre r.dist / r.next (en el lugar). */
+    static void solve(Result r, int bloque) {
+        if (bloque < 1) throw new IllegalArgumentException("El tamaño de bloque debe ser >= 1");
+        int n = r.n, bloques = (n + bloque - 1) / bloque;
+        long[] d = r.dist;
+        int[] nx = r.next;
+        for (int kb = 0; kb < bloques; kb++) {
+            // 1) bloque diagonal
+            actualizar(d, nx, n, bloque, kb, kb, kb);
+            // 2) fila y columna del bloque diagonal
+            for (int b = 0; b < bloques; b++) {
+                if (b == kb) continue;
+                actualizar(d, nx, n, bloque, kb, b, kb);
+                actualizar(d, nx, n, bloque, b, kb, kb);
+            }
+            // 3) el resto
+            for (int ib = 0; ib < bloques; ib++) {
+                if (ib == kb) continue;
+                for (int jb = 0; jb < bloques; jb++) {
+                    if (jb == kb) continue;
+                    actualizar(d, nx, n, bloque, ib, jb, kb);
+                }
+            }
+        }
+    }
+
+    /** Igual que solve, con las fases 2 y 3 de cada kb repartidas en 'pool'. */
+    static void solveParallel(Result r, int bloque, ForkJoinPool pool) {
+        if (bloque < 1) throw new IllegalArgumentException("El tamaño de bloque debe ser >= 1");
+        int n = r.n, bloques = (n + bloque - 1) / bloque;
+        long[] d = r.dist;
+        int[] nx = r.next;
+        pool.submit(() -> {
+            for (int kb = 0; kb < bloques; kb++) {
+                final int k = kb;
+                actualizar(d, nx, n, bloque, k, k, k);
+                // fila y columna: 2 (bloques - 1) tareas independientes
+                IntStream.range(0, 2 * bloques).parallel().forEach(t -> {
+                    int b = t >> 1;
+                    if (b == k) return;
+                    if ((t & 1) == 0) actualizar(d, nx, n, bloque, k, b, k);
+                    else actualizar(d, nx, n, bloque, b, k, k);
+                });
+                // resto: una tarea por fila de bloques
+                IntStream.range(0, bloques).parallel().forEach(ib -> {
+                    if (ib == k) return;
+                    for (int jb = 0; jb < bloques; jb++) {
+                        if (jb != k) actualizar(d, nx, n, bloque, ib, jb, k);
+                    }
+                });
+            }
+        }).join();
+    }
+
+    // Relaja el bloque (ib, jb) usando como intermedios los vértices del bloque kb.
+    static void actualizar(long[] d, int[] nx, int n, int bloque, int ib, int jb, int kb) {
+        int i0 = ib * bloque, i1 = Math.min(i0 + bloque, n);
+        int j0 = jb * bloque, j1 = Math.min(j0 + bloque, n);
+        int k0 = kb * bloque, k1 = Math.min(k0 + bloque, n);
+        for (int k = k0; k < k1; k++) {
+            int filaK = k * n;
+            for (int i = i0; i < i1; i++) {
+                int filaI = i * n;
+                long dik = d[filaI + k];
+                if (dik == INF) continue;
+                int nik = nx[filaI + k];
+                for (int j = j0; j < j1; j++) {
+                    long dkj = d[filaK + j];
+                    if (dkj == INF) continue;
+                    long s = dik + dkj; // ambos >= -INF: no desborda
+                    if (s < d[filaI + j]) {
+                        d[filaI + j] = s < -INF ? -INF : s;
+                        nx[filaI + j] = nik;
+                    }
+                }
+            }
+        }
+    }
+
+    // ======= Benchmark =======
+    // Uso: java BlockedFloydWarshall [N1 N2 ...] (por defecto 500 1000 2000)
+    // Para N = 4000 u 8000 conviene -Xmx4g: el ciclo de libro necesita su propia copia.
+    public static void main(String[] args) {
+        int[] tamaños = args.length > 0 ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                                        : new int[]{500, 1000, 2000};
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        System.out.println("== Floyd–Warshall: triple ciclo long[][] vs bloques sobre long[] ==");
+        System.out.printf("%d núcleos; speedups respecto del clásico%n", nucleos);
+        System.out.printf("%7s %14s %14s %9s %14s %9s%n", "N", "clásico (s)", "bloques (s)", "speedup",
+                "paralelo (s)", "speedup");
+        for (int n : tamaños) {
+            long[][] adj = grafoAleatorio(n, 8, new Random(n));
+            Map<Long, Long> pesos = aristas(adj);
+
+            Result r = fromMatrix(adj);
+            long t0 = System.nanoTime();
+            solve(r, BLOQUE);
+            double segBloques = (System.nanoTime() - t0) / 1e9;
+
+            Result rp = fromMatrix(adj);
+            ForkJoinPool pool = new ForkJoinPool(nucleos);
+            long t1 = System.nanoTime();
+            solveParallel(rp, BLOQUE, pool);
+            double segParalelo = (System.nanoTime() - t1) / 1e9;
+            pool.shutdown();
+
+            long[][] dist = adj; // el clásico trabaja en el lugar
+            int[][] next = new int[n][n];
+            FloydWarshallPasoAPaso.initNext(dist, next);
+            long t2 = System.nanoTime();
+            FloydWarshallPasoAPaso.floydWarshall(dist, next, false, false);
+            double segClasico = (System.nanoTime() - t2) / 1e9;
+
+            verificar(r, dist, pesos);
+            verificar(rp, dist, pesos);
+            System.out.printf("%7d %14.2f %14.2f %9.2f %14.2f %9.2f%n", n, segClasico,
+                    segBloques, segClasico / segBloques, segParalelo, segClasico / segParalelo);
+        }
+    }
+
+    // grafo dirigido con ~grado aristas salientes por vértice, pesos 1..1000
+    static long[][] grafoAleatorio(int n, int grado, Random rnd) {
+        long[][] adj = new long[n][n];
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(adj[i], INF);
+            adj[i][i] = 0;
+            for (int e = 0; e < grado; e++) {
+                int j = rnd.nextInt(n);
+                if (j != i) adj[i][j] = 1 + rnd.nextInt(1000);
+            }
+        }
+        return adj;
+    }
+
+    // aristas (i*n + j -> peso) del grafo original, para comprobar las rutas
+    private static Map<Long, Long> aristas(long[][] adj) {
+        Map<Long, Long> m = new HashMap<>();
+        int n = adj.length;
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                if (i != j && adj[i][j] < INF) m.put((long) i * n + j, adj[i][j]);
+        return m;
+    }
+
+    // mismas distancias que el clásico, y cada ruta de next suma exactamente su distancia
+    static void verificar(Result r, long[][] esperado, Map<Long, Long> pesos) {
+        int n = r.n;
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                if (r.dist[i * n + j] != esperado[i][j])
+                    throw new IllegalStateException("Distancia distinta en (" + i + ", " + j + ")");
+        Random rnd = new Random(1);
+        for (int q = 0; q < 1000; q++) {
+            int u = rnd.nextInt(n), v = rnd.nextInt(n);
+            if (r.dist[u * n + v] >= INF) continue;
+            List<Integer> p = r.path(u, v);
+            long suma = 0;
+            for (int t = 0; t + 1 < p.size(); t++) {
+                Long w = pesos.get((long) p.get(t) * n + p.get(t + 1));
+                if (w == null) throw new IllegalStateException("La ruta usa una arista inexistente");
+                suma += w;
+            }
+            if (p.isEmpty() || p.get(p.size() - 1) != v || suma != r.dist[u * n + v])
+                throw new IllegalStateException("Ruta inválida de " + u + " a " + v);
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.lelyliliana;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Caminos mínimos entre todos los pares con poca memoria por par.
+ *
+ * FloydWarshallPasoAPaso y BlockedFloydWarshall guardan long dist + int next: 12 bytes por
+ * par (N = 50 000 son ~30 GB). Aquí:
+ *  - Las distancias son int (4 bytes) mientras quepan. Cada escritura se controla: si una
+ *    suma no cabe en int, la matriz se promueve a long y se repite el bloque de k actual
+ *    (volver a relajar caminos válidos no cambia el resultado).
+ *  - No hay matriz next: la ruta u -> v se reconstruye desde dist y las aristas del
+ *    CsrGraph (el siguiente salto x cumple w(u, x) + dist[x][v] == dist[u][v]).
+ *  - Si la matriz no entra en el heap, vive en un archivo mapeado en memoria
+ *    (FileChannel.map por trozos de filas) y el sistema operativo trae las páginas a
+ *    medida que se usan.
+ *
+ * El algoritmo es Floyd–Warshall por bloques de k recorriendo filas: se cargan las B filas
+ * del bloque k, se cierran entre ellas, y luego cada otra fila se lee una sola vez por
+ * bloque (no una vez por k), se relaja con las B filas y se escribe si cambió. Las filas
+ * fuera del bloque son independientes y se procesan en paralelo.
+ */
+public class CompactApsp implements Closeable {
+
+    static final long INF = FloydWarshallPasoAPaso.INF;
+    static final int INF_INT = Integer.MAX_VALUE;
+    static final int BLOQUE_K = 64;
+
+    private final CsrGraph g;
+    private Almacen dist;
+    private boolean cicloNegativo;
+
+    private CompactApsp(CsrGraph g, Almacen dist) {
+        this.g = g; this.dist = dist;
+    }
+
+    // ======= Almacenamiento de la matriz =======
+    // La interfaz trabaja por filas de long (INF = sin camino); cada almacén convierte.
+    abstract static class Almacen implements Closeable {
+        final int n;
+        Almacen(int n) { this.n = n; }
+        abstract boolean esInt();
+        abstract boolean esMapeado();
+        abstract long get(int i, int j);
+        abstract void leerFila(int i, long[] dst);
+        /** false si algún valor no cabe (solo almacenes int): no se escribe nada. */
+        abstract boolean escribirFila(int i, long[] src);
+        public void close() throws IOException { }
+    }
+
+    static boolean cabeEnInt(long x) { return x == INF || (x > Integer.MIN_VALUE && x < INF_INT); }
+
+    static final class AlmacenInt extends Almacen {
+        final int[] a;
+        AlmacenInt(int n) { super(n); a = new int[n * n]; }
+        boolean esInt() { return true; }
+        boolean esMapeado() { return false; }
+        long get(int i, int j) { int x = a[i * n + j]; return x == INF_INT ? INF : x; }
+        void leerFila(int i, long[] dst) {
+            for (int j = 0, p = i * n; j < n; j++, p++) dst[j] = a[p] == INF_INT ? INF : a[p];
+        }
+        boolean escribirFila(int i, long[] src) {
+            for (int j = 0; j < n; j++) if (!cabeEnInt(src[j])) return false;
+            for (int j = 0, p = i * n; j < n; j++, p++) a[p] = src[j] == INF ? INF_INT : (int) src[j];
+            return true;
+        }
+    }
+
+    static final class AlmacenLong extends Almacen {
+        final long[] a;
+        AlmacenLong(int n) { super(n); a = new long[n * n]; }
+        boolean esInt() { return false; }
+        boolean esMapeado() { return false; }
+        long get(int i, int j) { return a[i * n + j]; }
+        void leerFila(int i, long[] dst) { System.arraycopy(a, i * n, dst, 0, n); }
+        boolean escribirFila(int i, long[] src) { System.arraycopy(src, 0, a, i * n, n); return true; }
+    }
+
+    // Archivo mapeado por trozos de filas completas (cada trozo < 2 GB, límite de map).
+    static final class AlmacenMapeado extends Almacen {
+        private static final long MAX_TROZO = 1L << 30;
+        final Path archivo;
+        final boolean enteros;
+        final boolean temporal; // creado por esta clase: se borra al cerrar
+        final int filasPorTrozo;
+        private final FileChannel ch;
+        private final IntBuffer[] ints;
+        private final LongBuffer[] longs;
+
+        AlmacenMapeado(int n, Path archivo, boolean enteros, boolean temporal) throws IOException {
+            this(n, archivo, enteros, temporal, false);
+        }
+
+        /** existente: abre el archivo sin vaciarlo (ya tiene la matriz escrita). */
+        AlmacenMapeado(int n, Path archivo, boolean enteros, boolean temporal, boolean existente) throws IOException {
+            super(n);
+            this.archivo = archivo;
+            this.enteros = enteros;
+            this.temporal = temporal;
+            long bytesFila = (long) n * (enteros ? 4 : 8);
+            filasPorTrozo = (int) Math.max(1, MAX_TROZO / bytesFila);
+            int trozos = (n + filasPorTrozo - 1) / filasPorTrozo;
+            ch = existente ? FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                    : FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                            StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ints = enteros ? new IntBuffer[trozos] : null;
+            longs = enteros ? null : new LongBuffer[trozos];
+            for (int t = 0; t < trozos; t++) {
+                long desde = (long) t * filasPorTrozo * bytesFila;
+                long tam = Math.min((long) filasPorTrozo, n - (long) t * filasPorTrozo) * bytesFila;
+                MappedByteBuffer mb = ch.map(FileChannel.MapMode.READ_WRITE, desde, tam);
+                if (enteros) ints[t] = mb.asIntBuffer(); else longs[t] = mb.asLongBuffer();
+            }
+        }
+
+        boolean esInt() { return enteros; }
+        boolean esMapeado() { return true; }
+
+        long get(int i, int j) {
+            int t = i / filasPorTrozo, p = (i % filasPorTrozo) * n + j;
+            if (!enteros) return longs[t].get(p);
+            int x = ints[t].get(p);
+            return x == INF_INT ? INF : x;
+        }
+
+        void leerFila(int i, long[] dst) {
+            int t = i / filasPorTrozo, p = (i % filasPorTrozo) * n;
+            if (!enteros) { longs[t].get(p, dst, 0, n); return; }
+            IntBuffer b = ints[t];
+            for (int j = 0; j < n; j++) { int x = b.get(p + j); dst[j] = x == INF_INT ? INF : x; }
+        }
+
+        boolean escribirFila(int i, long[] src) {
+            int t = i / filasPorTrozo, p = (i % filasPorTrozo) * n;
+            if (!enteros) { longs[t].put(p, src, 0, n); return true; }
+            for (int j = 0; j < n; j++) if (!cabeEnInt(src[j])) return false;
+            IntBuffer b = ints[t];
+            for (int j = 0; j < n; j++) b.put(p + j, src[j] == INF ? INF_INT : (int) src[j]);
+            return true;
+        }
+
+        @Override public void close() throws IOException {
+            ch.close();
+            if (temporal) Files.deleteIfExists(archivo);
+        }
+    }
+
+    // ======= Resolución =======
+
+    /**
+     * Resuelve APSP sobre g. Si 'archivo' es null la matriz va al heap cuando entra (menos
+     * de la mitad de la memoria máxima y n² < 2^31), y si no, a un archivo temporal mapeado.
+     * Con 'archivo' no nulo se usa siempre ese archivo, y close() no lo borra.
+     */
+    static CompactApsp solve(CsrGraph g, Path archivo, ForkJoinPool pool) throws IOException {
+        int n = g.n;
+        boolean enteros = true;
+        for (int e = 0; e < g.edges(); e++) {
+            double w = g.weights[e];
+            if (w != Math.rint(w)) throw new IllegalArgumentException("Se esperan pesos enteros (arista " + e + ")");
+            if (!cabeEnInt((long) w) || (long) w == INF) enteros = false;
+        }
+        boolean mapear = archivo != null || !cabeEnHeap(n, enteros ? 4 : 8);
+        boolean temporal = mapear && archivo == null;
+        if (temporal) archivo = Files.createTempFile("apsp", ".dist");
+        Almacen a = nuevoAlmacen(n, enteros, mapear ? archivo : null, temporal);
+        CompactApsp r = new CompactApsp(g, a);
+        r.inicializar();
+        r.floydWarshall(pool);
+        for (int v = 0; v < n; v++) if (r.dist.get(v, v) < 0) r.cicloNegativo = true;
+        return r;
+    }
+
+    static boolean cabeEnHeap(int n, int bytesCelda) {
+        long celdas = (long) n * n;
+        return celdas <= Integer.MAX_VALUE - 8 && celdas * bytesCelda < Runtime.getRuntime().maxMemory() / 2;
+    }
+
+    private static Almacen nuevoAlmacen(int n, boolean enteros, Path archivo, boolean temporal) throws IOException {
+        if (archivo != null) return new AlmacenMapeado(n, archivo, enteros, temporal);
+        return enteros ? new AlmacenInt(n) : new AlmacenLong(n);
+    }
+
+    private void inicializar() {
+        int n = g.n;
+        long[] fila = new long[n];
+        for (int u = 0; u < n; u++) {
+            Arrays.fill(fila, INF);
+            fila[u] = 0;
+            for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) {
+                long w = (long) g.weights[e];
+                if (w < fila[g.targets[e]]) fila[g.targets[e]] = w;
+            }
+            if (!dist.escribirFila(u, fila)) throw new IllegalStateException("Peso inicial fuera de rango int");
+        }
+    }
+
+    // señal interna: una fila no entró en int (solo se lanza desde el hilo que llama)
+    private static final class Desborde extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        Desborde() { super(null, null, false, false); }
+    }
+
+    private void floydWarshall(ForkJoinPool pool) throws IOException {
+        int n = g.n;
+        for (int k0 = 0; k0 < n; k0 += BLOQUE_K) {
+            int k1 = Math.min(k0 + BLOQUE_K, n);
+            while (true) {
+                try {
+                    bloqueK(k0, k1, pool);
+                    break;
+                } catch (Desborde d) {
+                    promover(); // y repetir el mismo bloque con long
+                }
+            }
+        }
+    }
+
+    private void bloqueK(int k0, int k1, ForkJoinPool pool) {
+        int n = g.n, b = k1 - k0;
+        // 1) las filas del bloque, entre ellas (Floyd–Warshall restringido a esas filas)
+        long[][] filasK = new long[b][n];
+        for (int t = 0; t < b; t++) dist.leerFila(k0 + t, filasK[t]);
+        for (int k = k0; k < k1; k++) {
+            long[] fk = filasK[k - k0];
+            for (int t = 0; t < b; t++) relajar(filasK[t], fk, k);
+        }
+        for (int t = 0; t < b; t++) if (!dist.escribirFila(k0 + t, filasK[t])) throw new Desborde();
+        // 2) el resto de las filas, independientes entre sí
+        ThreadLocal<long[]> buffers = ThreadLocal.withInitial(() -> new long[n]);
+        AtomicBoolean desbordo = new AtomicBoolean();
+        pool.submit(() -> IntStream.range(0, n).parallel().forEach(i -> {
+            if ((i >= k0 && i < k1) || desbordo.get()) return;
+            long[] fila = buffers.get();
+            dist.leerFila(i, fila);
+            boolean cambio = false;
+            for (int k = k0; k < k1; k++) cambio |= relajar(fila, filasK[k - k0], k);
+            if (cambio && !dist.escribirFila(i, fila)) desbordo.set(true);
+        })).join();
+        if (desbordo.get()) throw new Desborde();
+    }
+
+    // fila[j] = min(fila[j], fila[k] + filaK[j]), acotado en -INF; true si algo cambió
+    private static boolean relajar(long[] fila, long[] filaK, int k) {
+        long dik = fila[k];
+        if (dik == INF) return false;
+        boolean cambio = false;
+        for (int j = 0; j < fila.length; j++) {
+            long dkj = filaK[j];
+            if (dkj == INF) continue;
+            long s = dik + dkj;
+            if (s < fila[j]) {
+                fila[j] = s < -INF ? -INF : s;
+                cambio = true;
+            }
+        }
+        return cambio;
+    }
+
+    // Pasa la matriz a long. Si el archivo es del llamador, la copia long se arma en un
+    // temporal de la misma carpeta y luego reemplaza al archivo (que sigue siendo el suyo).
+    private void promover() throws IOException {
+        int n = g.n;
+        Almacen viejo = dist;
+        AlmacenMapeado delLlamador = viejo instanceof AlmacenMapeado am && !am.temporal ? am : null;
+        Path destino = null;
+        if (delLlamador != null) {
+            Path p = delLlamador.archivo.toAbsolutePath();
+            destino = Files.createTempFile(p.getParent(), p.getFileName() + ".", ".long");
+        } else if (viejo.esMapeado() || !cabeEnHeap(n, 8)) {
+            destino = Files.createTempFile("apsp", ".dist");
+        }
+        Almacen nuevo = null;
+        try {
+            nuevo = nuevoAlmacen(n, false, destino, delLlamador == null);
+            long[] fila = new long[n];
+            for (int i = 0; i < n; i++) {
+                viejo.leerFila(i, fila);
+                nuevo.escribirFila(i, fila);
+            }
+            viejo.close();
+            if (delLlamador != null) {
+                nuevo.close();
+                nuevo = null;
+                Files.move(destino, delLlamador.archivo, StandardCopyOption.REPLACE_EXISTING);
+                nuevo = new AlmacenMapeado(n, delLlamador.archivo, false, false, true);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (nuevo != null) nuevo.close();
+            if (delLlamador != null) Files.deleteIfExists(destino);
+            throw e;
+        }
+        dist = nuevo;
+    }
+
+    // ======= Consultas =======
+
+    int n() { return g.n; }
+
+    long dist(int u, int v) { return dist.get(u, v); }
+
+    boolean usaInt() { return dist.esInt(); }
+
+    boolean mapeado() { return dist.esMapeado(); }
+
+    long bytesPorPar() { return dist.esInt() ? 4 : 8; }
+
+    boolean hasNegativeCycle() { return cicloNegativo; }
+
+    /**
+     * Ruta u -> v reconstruida desde dist (vacía si no hay ruta o hay ciclos negativos).
+     * Se recorren solo las aristas ajustadas x -> y (w + dist[y][v] == dist[x][v]) con un
+     * BFS desde u: un ciclo de peso 0 entre aristas ajustadas no lo deja sin salida, y
+     * cualquier camino de u a v por aristas ajustadas mide exactamente dist[u][v].
+     */
+    List<Integer> path(int u, int v) {
+        List<Integer> path = new ArrayList<>();
+        long d = dist.get(u, v);
+        if (d >= INF || cicloNegativo) return path;
+        int n = g.n;
+        int[] padre = new int[n], cola = new int[n];
+        Arrays.fill(padre, -1);
+        padre[u] = u;
+        int ini = 0, fin = 0;
+        cola[fin++] = u;
+        while (ini < fin && padre[v] == -1) {
+            int x = cola[ini++];
+            long resto = dist.get(x, v);
+            for (int e = g.offsets[x]; e < g.offsets[x + 1]; e++) {
+                int y = g.targets[e];
+                if (padre[y] != -1) continue;
+                long dy = dist.get(y, v);
+                if (dy < INF && (long) g.weights[e] + dy == resto) {
+                    padre[y] = x;
+                    cola[fin++] = y;
+                }
+            }
+        }
+        if (padre[v] == -1) return path; // no debería pasar si dist es correcta
+        for (int x = v; x != u; x = padre[x]) path.add(x);
+        path.add(u);
+        Collections.reverse(path);
+        return path;
+    }
+
+    /** Libera la matriz (y borra el archivo mapeado, si lo hay). */
+    @Override public void close() throws IOException { dist.close(); }
+
+    // ======= Demo / benchmark =======
+    // Uso: java CompactApsp [n=2000] [grado=8] [pesoMax=1000]
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int grado = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int pesoMax = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        long[][] adj = BlockedFloydWarshall.grafoAleatorio(n, grado, new Random(n));
+        for (long[] fila : adj) for (int j = 0; j < n; j++) if (fila[j] > 0 && fila[j] < INF) fila[j] = 1 + fila[j] * pesoMax / 1000;
+        CsrGraph g = CsrGraph.fromMatrix(adj);
+
+        System.out.println("== APSP compacto: dist int/long sin next, en heap o mapeado ==");
+        System.out.printf("n = %d, m = %d, pesos hasta %d%n", n, g.edges(), pesoMax);
+
+        long t0 = System.nanoTime();
+        BlockedFloydWarshall.Result ref = BlockedFloydWarshall.run(adj);
+        reportar("BlockedFloydWarshall (long + next)", t0, (long) n * n * 12);
+
+        Path archivo = Files.createTempFile("apsp", ".dist");
+        for (boolean mapear : new boolean[]{false, true}) {
+            long t1 = System.nanoTime();
+            try (CompactApsp c = solve(g, mapear ? archivo : null, pool)) {
+                reportar("CompactApsp " + (c.mapeado() ? "mapeado" : "heap") + " (" + (c.usaInt() ? "int" : "long") + ")",
+                        t1, (long) n * n * c.bytesPorPar());
+                Random rnd = new Random(3);
+                for (int u = 0; u < n; u++)
+                    for (int v = 0; v < n; v++)
+                        if (c.dist(u, v) != ref.dist(u, v)) throw new IllegalStateException("Distancia distinta en " + u + " " + v);
+                for (int q = 0; q < 1000; q++) {
+                    int u = rnd.nextInt(n), v = rnd.nextInt(n);
+                    List<Integer> p = c.path(u, v);
+                    long suma = 0;
+                    for (int i = 0; i + 1 < p.size(); i++) suma += adj[p.get(i)][p.get(i + 1)];
+                    if (ref.dist(u, v) < INF && (p.isEmpty() || suma != ref.dist(u, v)))
+                        throw new IllegalStateException("Ruta reconstruida inválida de " + u + " a " + v);
+                }
+            }
+        }
+        Files.deleteIfExists(archivo);
+        System.out.println("Distancias y rutas verificadas contra BlockedFloydWarshall.");
+        pool.shutdown();
+    }
+
+    private static void reportar(String nombre, long inicio, long bytes) {
+        System.out.printf("%-40s %8.2f s  %8.1f MB%n", nombre, (System.nanoTime() - inicio) / 1e9, bytes / 1e6);
+    }
+}
@@ -0,0 +1,111 @@
+package com.lelyliliana;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Union-find sin bloqueos (lock-free), variante concurrente de KruskalTerminalGame.DSU.
+ *
+ *  - Los padres viven en un AtomicIntegerArray y toda escritura es un CAS.
+ *  - union enlaza la raíz de menor prioridad bajo la de mayor prioridad; las prioridades
+ *    son una permutación aleatoria fija, así el padre siempre tiene mayor prioridad que
+ *    el hijo (nunca se forman ciclos) y la altura esperada es O(log n).
+ *  - find usa "path halving" con CAS: si otro hilo cambió el enlace, el CAS falla y no
+ *    pasa nada, porque cualquier ancestro sigue siendo un padre válido.
+ *  - same es linealizable: si tras hallar ambas raíces la primera sigue siendo raíz,
+ *    en ese instante los conjuntos eran distintos.
+ *
+ * Muchos hilos pueden llamar union / same / find al mismo tiempo.
+ * El main mide cómo escala con la cantidad de hilos.
+ */
+public class ConcurrentDSU {
+
+    private final AtomicIntegerArray p;
+    private final int[] prioridad;
+
+    ConcurrentDSU(int n) { this(n, 1); }
+
+    ConcurrentDSU(int n, long semilla) {
+        p = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) p.set(i, i);
+        prioridad = IntStream.range(0, n).toArray();
+        SplittableRandom rnd = new SplittableRandom(semilla);
+        for (int i = n - 1; i > 0; i--) { // Fisher–Yates
+            int j = rnd.nextInt(i + 1);
+            int t = prioridad[i]; prioridad[i] = prioridad[j]; prioridad[j] = t;
+        }
+    }
+
+    int find(int x) {
+        while (true) {
+            int px = p.get(x);
+            if (px == x) return x;
+            int gx = p.get(px);
+            if (gx != px) p.compareAndSet(x, px, gx); // path halving
+            x = gx;
+        }
+    }
+
+    boolean same(int a, int b) {
+        while (true) {
+            a = find(a);
+            b = find(b);
+            if (a == b) return true;
+            if (p.get(a) == a) return false; // 'a' siguió siendo raíz: eran distintos
+        }
+    }
+
+    /** true si este llamado unió dos conjuntos distintos. */
+    boolean union(int a, int b) {
+        while (true) {
+            a = find(a);
+            b = find(b);
+            if (a == b) return false;
+            if (prioridad[a] > prioridad[b]) { int t = a; a = b; b = t; }
+            if (p.compareAndSet(a, a, b)) return true; // falla si 'a' dejó de ser raíz
+        }
+    }
+
+    // ======= Benchmark de escalamiento =======
+    // Uso: java ConcurrentDSU [n=1000000] [operaciones=20000000] [porcentajeUnion=20]
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 20_000_000;
+        int porcUnion = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int nucleos = Runtime.getRuntime().availableProcessors();
+
+        // pares pregenerados para que todos los hilos hagan el mismo trabajo
+        SplittableRandom rnd = new SplittableRandom(11);
+        int[] a = new int[ops], b = new int[ops];
+        for (int i = 0; i < ops; i++) { a[i] = rnd.nextInt(n); b[i] = rnd.nextInt(n); }
+
+        System.out.println("== Benchmark union-find concurrente ==");
+        System.out.printf("n = %d, operaciones = %d (%d%% union, resto same), %d núcleos%n", n, ops, porcUnion, nucleos);
+        System.out.printf("%6s %12s %10s %14s%n", "hilos", "Mops/s", "speedup", "componentes");
+
+        List<Integer> cantidades = new ArrayList<>();
+        for (int h = 1; h < nucleos; h *= 2) cantidades.add(h);
+        cantidades.add(nucleos);
+
+        double base = 0;
+        for (int hilos : cantidades) {
+            ConcurrentDSU dsu = new ConcurrentDSU(n);
+            ForkJoinPool pool = new ForkJoinPool(hilos);
+            long t0 = System.nanoTime();
+            long uniones = pool.submit(() -> IntStream.range(0, ops).parallel()
+                    .map(i -> {
+                        if ((i % 100) < porcUnion) return dsu.union(a[i], b[i]) ? 1 : 0;
+                        dsu.same(a[i], b[i]);
+                        return 0;
+                    })
+                    .asLongStream().sum()).get();
+            double seg = (System.nanoTime() - t0) / 1e9;
+            pool.shutdown();
+            double mops = ops / seg / 1e6;
+            if (hilos == 1) base = mops;
+            System.out.printf("%6d %12.2f %10.2f %14d%n", hilos, mops, mops / base, n - uniones);
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.lelyliliana;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+import com.lelyliliana.KruskalTerminalGame.EdgeArrays;
+
+/**
+ * Grafo dirigido en formato CSR (compressed sparse row), compartido por los motores de
+ * caminos mínimos:
+ *  - offsets[v] .. offsets[v+1]-1 son las posiciones de las aristas que salen de v,
+ *  - targets[e] es el destino de la arista e y weights[e] su peso.
+ * Tres arreglos primitivos en total, sin objetos por arista ni listas por vértice.
+ *
+ * Los pesos son double para que sirvan también a GradoDijkstra (costos fraccionarios).
+ * Los enteros de |x| < 2^53 se representan exactos, lo que cubre el rango de
+ * FloydWarshallPasoAPaso (INF = 10^15).
+ *
+ * Archivo binario (.csrg, big-endian), el formato común de los programas de grafos:
+ *   int MAGIC, int VERSION, int FLAGS, int n, int m, offsets (n+1 int), targets (m int), weights (m double)
+ * FLAGS bit 0 (NO_DIRIGIDO): cada arista está guardada como dos arcos opuestos (fromUndirected).
+ * Se carga con FileChannel.map: las tres secciones se copian a los arreglos con lecturas en
+ * bloque, sin parsear texto. convertir() lo genera desde las entradas de texto existentes
+ * (matriz de FloydWarshallPasoAPaso, aristas "n m / u v w" de Kruskal) o desde el binario
+ * de aristas de ExternalKruskal/GraphGenerator.
+ */
+public class CsrGraph {
+
+    final int n;
+    final int[] offsets; // n + 1 entradas
+    final int[] targets;
+    final double[] weights;
+    final boolean noDirigido; // arcos en pares u -> v, v -> u (fromUndirected)
+
+    CsrGraph(int n, int[] offsets, int[] targets, double[] weights) {
+        this(n, offsets, targets, weights, false);
+    }
+
+    CsrGraph(int n, int[] offsets, int[] targets, double[] weights, boolean noDirigido) {
+        if (n < 0 || offsets.length != n + 1 || offsets[0] != 0)
+            throw new IllegalArgumentException("offsets debe tener n + 1 entradas y empezar en 0");
+        int m = offsets[n];
+        if (targets.length < m || weights.length < m)
+            throw new IllegalArgumentException("targets/weights deben tener al menos " + m + " entradas");
+        for (int v = 0; v < n; v++) {
+            if (offsets[v] > offsets[v + 1]) throw new IllegalArgumentException("offsets no es creciente en " + v);
+        }
+        for (int e = 0; e < m; e++) {
+            if (targets[e] < 0 || targets[e] >= n) throw new IllegalArgumentException("Destino fuera de rango en la arista " + e);
+        }
+        this.n = n; this.offsets = offsets; this.targets = targets; this.weights = weights;
+        this.noDirigido = noDirigido;
+    }
+
+    int vertices() { return n; }
+
+    int edges() { return offsets[n]; }
+
+    int degree(int v) { return offsets[v + 1] - offsets[v]; }
+
+    /** Fracción de los n(n-1) arcos posibles que están presentes. */
+    double density() { return n < 2 ? 1 : edges() / ((double) n * (n - 1)); }
+
+    // ======= Construcción =======
+
+    /** Desde listas de aristas src[i] -> dst[i] con peso w[i], i < m (ordenamiento por conteo). */
+    static CsrGraph fromEdges(int n, int[] src, int[] dst, double[] w, int m) {
+        return fromEdges(n, src, dst, w, m, false);
+    }
+
+    private static CsrGraph fromEdges(int n, int[] src, int[] dst, double[] w, int m, boolean noDirigido) {
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            if (src[i] < 0 || src[i] >= n) throw new IllegalArgumentException("Origen fuera de rango: " + src[i]);
+            offsets[src[i] + 1]++;
+        }
+        for (int v = 0; v < n; v++) offsets[v + 1] += offsets[v];
+        int[] pos = Arrays.copyOf(offsets, n);
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        for (int i = 0; i < m; i++) {
+            int p = pos[src[i]]++;
+            targets[p] = dst[i];
+            weights[p] = w[i];
+        }
+        return new CsrGraph(n, offsets, targets, weights, noDirigido);
+    }
+
+    /** Desde las aristas de Kruskal/GraphGenerator tomadas como arcos u -> v. */
+    static CsrGraph fromDirected(EdgeArrays ea) {
+        double[] w = new double[ea.m];
+        for (int i = 0; i < ea.m; i++) w[i] = ea.w[i];
+        return fromEdges(ea.n, Arrays.copyOf(ea.u, ea.m), Arrays.copyOf(ea.v, ea.m), w, ea.m);
+    }
+
+    /** Desde las aristas no dirigidas de Kruskal/GraphGenerator: un arco en cada sentido. */
+    static CsrGraph fromUndirected(EdgeArrays ea) {
+        if (2L * ea.m > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Demasiadas aristas para CSR: " + ea.m);
+        int m = 2 * ea.m;
+        int[] src = new int[m], dst = new int[m];
+        double[] w = new double[m];
+        for (int i = 0; i < ea.m; i++) {
+            src[2 * i] = ea.u[i]; dst[2 * i] = ea.v[i]; w[2 * i] = ea.w[i];
+            src[2 * i + 1] = ea.v[i]; dst[2 * i + 1] = ea.u[i]; w[2 * i + 1] = ea.w[i];
+        }
+        return fromEdges(ea.n, src, dst, w, m, true);
+    }
+
+    /**
+     * Desde una matriz de adyacencia como la de FloydWarshallPasoAPaso: cada entrada < INF
+     * fuera de la diagonal es un arco. La diagonal se ignora salvo que sea negativa
+     * (un lazo negativo), que se conserva como arco v -> v.
+     */
+    static CsrGraph fromMatrix(long[][] adj) {
+        long INF = FloydWarshallPasoAPaso.INF;
+        int n = adj.length;
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            int c = 0;
+            for (int j = 0; j < n; j++) if (adj[i][j] < INF && (i != j || adj[i][j] < 0)) c++;
+            offsets[i + 1] = offsets[i] + c;
+        }
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        for (int i = 0, p = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (adj[i][j] < INF && (i != j || adj[i][j] < 0)) {
+                    targets[p] = j;
+                    weights[p++] = adj[i][j];
+                }
+            }
+        }
+        return new CsrGraph(n, offsets, targets, weights);
+    }
+
+    /**
+     * Matriz densa equivalente (INF donde no hay arco, 0 en la diagonal salvo lazos negativos).
+     * Los pesos deben ser enteros con |w| < INF, como en FloydWarshallPasoAPaso.
+     */
+    long[][] toMatrix() {
+        long INF = FloydWarshallPasoAPaso.INF;
+        long[][] adj = new long[n][n];
+        for (int u = 0; u < n; u++) {
+            Arrays.fill(adj[u], INF);
+            adj[u][u] = 0;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                double x = weights[e];
+                if (x != Math.rint(x) || !(Math.abs(x) < INF))
+                    throw new IllegalArgumentException("La matriz usa pesos enteros con |w| < INF (arco " + e + " = " + x + ")");
+                long w = (long) x;
+                if (w < adj[u][targets[e]]) adj[u][targets[e]] = w; // arcos paralelos: el menor
+            }
+        }
+        return adj;
+    }
+
+    /**
+     * Aristas no dirigidas para Kruskal (pesos enteros).
+     *  - Grafo de fromUndirected: un arco u -> v con u < v por arista (la otra mitad se descarta).
+     *  - Grafo dirigido: se simetriza. Cada arco u -> v da la arista {min, max}, los lazos se
+     *    descartan y, entre varios arcos del mismo par (u -> v y v -> u), queda el de menor peso.
+     */
+    EdgeArrays toUndirectedEdges() {
+        if (noDirigido) {
+            int cuantas = 0;
+            for (int u = 0; u < n; u++)
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) if (u < targets[e]) cuantas++;
+            EdgeArrays ea = new EdgeArrays(n, cuantas);
+            for (int u = 0; u < n; u++)
+                for (int e = offsets[u]; e < offsets[u + 1]; e++)
+                    if (u < targets[e]) ea.add(ea.m + 1, u, targets[e], pesoEntero(e));
+            return ea;
+        }
+        // cada arco se agrupa en la fila de su extremo menor (ordenamiento por conteo)
+        int[] fila = new int[n + 1];
+        for (int u = 0; u < n; u++)
+            for (int e = offsets[u]; e < offsets[u + 1]; e++)
+                if (u != targets[e]) fila[Math.min(u, targets[e]) + 1]++;
+        for (int a = 0; a < n; a++) fila[a + 1] += fila[a];
+        int[] pos = Arrays.copyOf(fila, n), otro = new int[fila[n]], peso = new int[fila[n]];
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                if (u == v) continue;
+                int p = pos[Math.min(u, v)]++;
+                otro[p] = Math.max(u, v);
+                peso[p] = pesoEntero(e);
+            }
+        }
+        // por fila, visto[b] == a marca que {a, b} ya está en indice[b]
+        EdgeArrays ea = new EdgeArrays(n, fila[n]);
+        int[] visto = new int[n], indice = new int[n];
+        Arrays.fill(visto, -1);
+        for (int a = 0; a < n; a++) {
+            for (int p = fila[a]; p < fila[a + 1]; p++) {
+                int b = otro[p];
+                if (visto[b] == a) {
+                    if (peso[p] < ea.w[indice[b]]) ea.w[indice[b]] = peso[p];
+                } else {
+                    visto[b] = a;
+                    indice[b] = ea.m;
+                    ea.add(ea.m + 1, a, b, peso[p]);
+                }
+            }
+        }
+        return ea;
+    }
+
+    private int pesoEntero(int e) {
+        int w = (int) weights[e];
+        if (w != weights[e]) throw new IllegalArgumentException("Kruskal usa pesos enteros (arco " + e + ")");
+        return w;
+    }
+
+    /** Grafo con todos los arcos invertidos (v -> u por cada u -> v). */
+    CsrGraph reverse() {
+        int m = edges();
+        int[] src = new int[m];
+        for (int u = 0; u < n; u++)
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) src[e] = u;
+        return fromEdges(n, Arrays.copyOf(targets, m), src, weights, m);
+    }
+
+    // ======= Archivo binario =======
+
+    static final int MAGIC = 0x43535247; // "CSRG"
+    static final int VERSION = 1;
+    static final int NO_DIRIGIDO = 1; // bit de FLAGS
+    private static final int CABECERA = 20;
+    private static final long TRAMO_MAPEO = 1 << 30; // bytes por región mapeada
+
+    void write(Path archivo) throws IOException {
+        int m = edges();
+        try (FileChannel ch = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20);
+            buf.putInt(MAGIC).putInt(VERSION).putInt(noDirigido ? NO_DIRIGIDO : 0).putInt(n).putInt(m);
+            for (int x : offsets) { if (buf.remaining() < 4) vaciar(ch, buf); buf.putInt(x); }
+            for (int e = 0; e < m; e++) { if (buf.remaining() < 4) vaciar(ch, buf); buf.putInt(targets[e]); }
+            for (int e = 0; e < m; e++) { if (buf.remaining() < 8) vaciar(ch, buf); buf.putDouble(weights[e]); }
+            vaciar(ch, buf);
+        }
+    }
+
+    private static void vaciar(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+
+    static boolean esArchivoCsr(Path archivo) throws IOException {
+        if (Files.size(archivo) < CABECERA) return false;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(archivo))) {
+            return in.readInt() == MAGIC;
+        }
+    }
+
+    /** Cabecera validada de un .csrg y la posición de cada sección en el archivo. */
+    static final class Cabecera {
+        final int n, m;
+        final boolean noDirigido;
+        final long posOffsets, posTargets, posWeights;
+
+        Cabecera(int n, int m, boolean noDirigido) {
+            this.n = n; this.m = m; this.noDirigido = noDirigido;
+            posOffsets = CABECERA;
+            posTargets = posOffsets + 4L * (n + 1);
+            posWeights = posTargets + 4L * m;
+        }
+    }
+
+    static Cabecera leerCabecera(FileChannel ch, Path archivo) throws IOException {
+        if (ch.size() < CABECERA) throw new IOException("Archivo CSR demasiado corto: " + archivo);
+        MappedByteBuffer cab = ch.map(FileChannel.MapMode.READ_ONLY, 0, CABECERA);
+        if (cab.getInt() != MAGIC) throw new IOException("No es un grafo CSR: " + archivo);
+        int version = cab.getInt();
+        if (version != VERSION) throw new IOException("Versión de CSR no soportada: " + version);
+        int flags = cab.getInt(), n = cab.getInt(), m = cab.getInt();
+        if ((flags & ~NO_DIRIGIDO) != 0) throw new IOException("FLAGS de CSR desconocidos: " + flags);
+        if (n < 0 || m < 0) throw new IOException("Cabecera CSR inválida: n = " + n + ", m = " + m);
+        Cabecera c = new Cabecera(n, m, (flags & NO_DIRIGIDO) != 0);
+        long esperado = c.posWeights + 8L * m;
+        if (ch.size() != esperado) throw new IOException("Tamaño de archivo inconsistente: " + ch.size() + " != " + esperado);
+        return c;
+    }
+
+    /** Carga un .csrg mapeándolo en memoria (el constructor valida la estructura). */
+    static CsrGraph read(Path archivo) throws IOException {
+        try (FileChannel ch = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            Cabecera cab = leerCabecera(ch, archivo);
+            int n = cab.n, m = cab.m;
+            int[] offsets = new int[n + 1], targets = new int[m];
+            double[] weights = new double[m];
+            long pos = cab.posOffsets;
+            pos = leerInts(ch, pos, offsets);
+            pos = leerInts(ch, pos, targets);
+            for (int i = 0; i < m; ) {
+                int c = (int) Math.min(m - i, TRAMO_MAPEO / 8);
+                ch.map(FileChannel.MapMode.READ_ONLY, pos, 8L * c).asDoubleBuffer().get(weights, i, c);
+                pos += 8L * c;
+                i += c;
+            }
+            try {
+                return new CsrGraph(n, offsets, targets, weights, cab.noDirigido);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Grafo CSR corrupto en " + archivo + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static long leerInts(FileChannel ch, long pos, int[] dst) throws IOException {
+        for (int i = 0; i < dst.length; ) {
+            int c = (int) Math.min(dst.length - i, TRAMO_MAPEO / 4);
+            ch.map(FileChannel.MapMode.READ_ONLY, pos, 4L * c).asIntBuffer().get(dst, i, c);
+            pos += 4L * c;
+            i += c;
+        }
+        return pos;
+    }
+
+    // ======= Conversión desde los formatos existentes =======
+
+    /**
+     * Lee cualquier entrada de grafo del proyecto:
+     *  - .csrg (se devuelve tal cual),
+     *  - binario de aristas de ExternalKruskal/GraphGenerator o texto "n m" + "u v w",
+     *    como aristas no dirigidas (o arcos u -> v si dirigido),
+     *  - matriz de FloydWarshallPasoAPaso: N y N filas de pesos o INF (siempre dirigida).
+     */
+    static CsrGraph convertir(Path entrada, boolean dirigido) throws IOException {
+        if (esArchivoCsr(entrada)) return read(entrada);
+        if (esMatriz(entrada)) return fromMatrix(PathQueryService.leerMatriz(entrada));
+        try (ExternalKruskal.EdgeReader in = ExternalKruskal.open(entrada)) {
+            EdgeArrays ea = new EdgeArrays(in.vertices(), 1024);
+            int[] rec = new int[3];
+            while (in.next(rec)) ea.add(ea.m + 1, rec[0], rec[1], rec[2]);
+            return dirigido ? fromDirected(ea) : fromUndirected(ea);
+        }
+    }
+
+    // la matriz empieza con una línea de un solo número; las aristas de texto con "n m"
+    private static boolean esMatriz(Path archivo) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(archivo))) {
+            if (Files.size(archivo) >= 4 && in.readInt() == ExternalKruskal.MAGIC) return false;
+        }
+        try (BufferedReader in = Files.newBufferedReader(archivo)) {
+            String linea;
+            while ((linea = in.readLine()) != null && linea.isBlank()) { }
+            return linea != null && linea.trim().split("\\s+").length == 1;
+        }
+    }
+
+    // ======= Main =======
+    // Uso: java CsrGraph convertir entrada salida.csrg [dirigido]
+    //      java CsrGraph info grafo.csrg
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("convertir")) {
+            long t0 = System.nanoTime();
+            CsrGraph g = convertir(Paths.get(args[1]), args.length > 3 && args[3].equals("dirigido"));
+            double segLeer = (System.nanoTime() - t0) / 1e9;
+            long t1 = System.nanoTime();
+            g.write(Paths.get(args[2]));
+            System.out.printf("n = %d, m = %d arcos | entrada leída en %.2f s, CSR escrito en %.2f s%n",
+                    g.n, g.edges(), segLeer, (System.nanoTime() - t1) / 1e9);
+        } else if (args.length >= 2 && args[0].equals("info")) {
+            long t0 = System.nanoTime();
+            CsrGraph g = read(Paths.get(args[1]));
+            double ms = (System.nanoTime() - t0) / 1e6;
+            int maxGrado = 0;
+            for (int v = 0; v < g.n; v++) maxGrado = Math.max(maxGrado, g.degree(v));
+            System.out.printf("%s, n = %d, m = %d arcos, grado máximo %d, densidad %.2e | cargado en %.0f ms%n",
+                    g.noDirigido ? "no dirigido" : "dirigido", g.n, g.edges(), maxGrado, g.density(), ms);
+        } else {
+            System.out.println("Uso: java CsrGraph convertir entrada salida.csrg [dirigido]");
+            System.out.println("     java CsrGraph info grafo.csrg");
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.lelyliliana;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Motor de Dijkstra reutilizable sobre un CsrGraph (pesos double >= 0).
+ *
+ *  - Heap 4-ario indexado por vértice (pos[v] = casilla), con decrease-key: cada vértice
+ *    está a lo sumo una vez en el heap, sin entradas viejas ni objetos por relajación.
+ *  - Todo el estado son arreglos primitivos de tamaño n creados una sola vez. Entre
+ *    consultas solo se limpian los vértices tocados por la anterior, así que una consulta
+ *    corta en un grafo de 10M+ vértices no paga O(n) de reinicio.
+ *  - Una instancia no es segura entre hilos: para consultas en paralelo, una por hilo
+ *    (el CsrGraph sí se puede compartir).
+ *
+ * Uso: run(s) calcula todo el árbol de caminos mínimos; run(s, t) se detiene al cerrar t.
+ * Después: dist(v), parent(v), parentEdge(v) (posición del arco en el CSR) y path(v, ruta).
+ *
+ * Consultas punto a punto que cierran menos vértices:
+ *  - aStar(s, t, h): el heap ordena por dist + h(v). Con h admisible (nunca sobreestima)
+ *    el resultado es exacto; si h además es consistente ningún vértice se reabre.
+ *  - bidirectional(s, t): una búsqueda desde s y otra desde t sobre el grafo invertido
+ *    (creado la primera vez), alternando el lado con menor tope. Se detiene cuando
+ *    topeAdelante + topeAtras >= mejor, donde mejor es el menor dAdelante(v) + dAtras(v)
+ *    visto en los vértices que tocaron ambas. Resultado: meetDistance() y meetPath(ruta).
+ */
+public class DijkstraEngine {
+
+    static final double INF = Double.POSITIVE_INFINITY;
+
+    /** Cota inferior de la distancia de v al destino (admisible: nunca la sobreestima). */
+    interface Heuristic {
+        double estimate(int v);
+    }
+
+    static final int ARIDAD = 4;
+    private static final int FUERA = -1, CERRADO = -2;
+
+    final CsrGraph g;
+    private final double[] dist;
+    private final double[] clave; // prioridad en el heap: dist, o dist + h en A*
+    private final int[] parent, parentEdge;
+    private final int[] heap, pos;
+    private int tam;
+    private final int[] tocados; // vértices con dist asignada en la consulta actual
+    private int nTocados;
+    private int cerrados;
+    private Heuristic h;
+
+    // búsqueda bidireccional: el motor del grafo invertido y el punto de encuentro
+    private DijkstraEngine atras;
+    private double mejor;
+    private int medio = -1;
+
+    DijkstraEngine(CsrGraph g) {
+        for (int e = 0; e < g.edges(); e++) {
+            if (!(g.weights[e] >= 0)) throw new IllegalArgumentException("Dijkstra requiere pesos >= 0 (arco " + e + ")");
+        }
+        this.g = g;
+        int n = g.n;
+        dist = new double[n];
+        clave = new double[n];
+        parent = new int[n];
+        parentEdge = new int[n];
+        heap = new int[n];
+        pos = new int[n];
+        tocados = new int[n];
+        Arrays.fill(dist, INF);
+        Arrays.fill(parent, -1);
+        Arrays.fill(parentEdge, -1);
+        Arrays.fill(pos, FUERA);
+    }
+
+    // ======= Consultas =======
+
+    /** Caminos mínimos desde s a todos. Devuelve la cantidad de vértices cerrados. */
+    int run(int s) { return run(s, -1); }
+
+    /** Caminos mínimos desde s; si t >= 0 se detiene al cerrar t. */
+    int run(int s, int t) {
+        return aStar(s, t, null);
+    }
+
+    /** A* de s a t (t < 0: sin destino, equivale a run(s)); h == null es Dijkstra simple. */
+    int aStar(int s, int t, Heuristic h) {
+        validar(s);
+        if (t >= g.n) throw new IllegalArgumentException("Vértice fuera de rango: " + t);
+        iniciar(s, h);
+        while (tam > 0) {
+            if (expandir(null, null) == t) break;
+        }
+        return cerrados;
+    }
+
+    /** Dijkstra bidireccional de s a t. Devuelve los vértices cerrados entre las dos búsquedas. */
+    int bidirectional(int s, int t) {
+        validar(s);
+        validar(t);
+        if (atras == null) atras = new DijkstraEngine(g.reverse());
+        iniciar(s, null);
+        atras.iniciar(t, null);
+        mejor = s == t ? 0 : INF;
+        medio = s == t ? s : -1;
+        while (tam > 0 && atras.tam > 0) {
+            double tope = clave[heap[0]], topeAtras = atras.clave[atras.heap[0]];
+            if (tope + topeAtras >= mejor) break;
+            if (tope <= topeAtras) expandir(atras, this); else atras.expandir(this, this);
+        }
+        return cerrados + atras.cerrados;
+    }
+
+    /** Distancia s -> t de la última bidirectional (INF si no hay camino). */
+    double meetDistance() { return mejor; }
+
+    /** Camino s -> t de la última bidirectional en 'ruta'; devuelve su largo (0 si no hay). */
+    int meetPath(int[] ruta) {
+        if (medio < 0) return 0;
+        int largo = path(medio, ruta);
+        for (int x = atras.parent[medio]; x != -1; x = atras.parent[x]) ruta[largo++] = x;
+        return largo;
+    }
+
+    private void iniciar(int s, Heuristic h) {
+        reiniciar();
+        this.h = h;
+        asignar(s, 0, -1, -1);
+        clave[s] = h == null ? 0 : h.estimate(s);
+        insertar(s);
+    }
+
+    // cierra el mínimo del heap y relaja sus arcos. En la búsqueda bidireccional 'otro' es
+    // el motor del lado opuesto y 'adelante' el que guarda el mejor encuentro.
+    private int expandir(DijkstraEngine otro, DijkstraEngine adelante) {
+        int[] offsets = g.offsets, targets = g.targets;
+        double[] weights = g.weights;
+        int u = extraerMin();
+        pos[u] = CERRADO;
+        cerrados++;
+        double du = dist[u];
+        for (int e = offsets[u], fin = offsets[u + 1]; e < fin; e++) {
+            int v = targets[e];
+            double nd = du + weights[e];
+            if (nd < dist[v]) {
+                // con h no consistente un vértice cerrado puede mejorar: se reabre
+                if (pos[v] == CERRADO) { if (h == null) continue; pos[v] = FUERA; }
+                asignar(v, nd, u, e);
+                clave[v] = h == null ? nd : nd + h.estimate(v);
+                if (pos[v] == FUERA) insertar(v); else subir(pos[v]);
+                if (otro != null && nd + otro.dist[v] < adelante.mejor) {
+                    adelante.mejor = nd + otro.dist[v];
+                    adelante.medio = v;
+                }
+            }
+        }
+        return u;
+    }
+
+    double dist(int v) { return dist[v]; }
+
+    int parent(int v) { return parent[v]; }
+
+    int parentEdge(int v) { return parentEdge[v]; }
+
+    /** Vértices cerrados en la última consulta. */
+    int settled() { return cerrados; }
+
+    /**
+     * Escribe en 'ruta' el camino origen -> v y devuelve su largo (0 si v es inalcanzable).
+     * 'ruta' necesita espacio para el camino completo (n alcanza siempre).
+     */
+    int path(int v, int[] ruta) {
+        if (dist[v] == INF) return 0;
+        int largo = 0;
+        for (int x = v; x != -1; x = parent[x]) largo++;
+        int i = largo;
+        for (int x = v; x != -1; x = parent[x]) ruta[--i] = x;
+        return largo;
+    }
+
+    private void validar(int v) {
+        if (v < 0 || v >= g.n) throw new IllegalArgumentException("Vértice fuera de rango: " + v);
+    }
+
+    // limpia solo lo que tocó la consulta anterior
+    private void reiniciar() {
+        for (int i = 0; i < nTocados; i++) {
+            int v = tocados[i];
+            dist[v] = INF; clave[v] = INF; parent[v] = -1; parentEdge[v] = -1; pos[v] = FUERA;
+        }
+        nTocados = 0;
+        tam = 0;
+        cerrados = 0;
+    }
+
+    private void asignar(int v, double d, int p, int e) {
+        if (dist[v] == INF) tocados[nTocados++] = v;
+        dist[v] = d; parent[v] = p; parentEdge[v] = e;
+    }
+
+    // --- heap 4-ario indexado: hijos de i en 4i+1 .. 4i+4, padre en (i-1)/4 ---
+    private void insertar(int v) {
+        heap[tam] = v;
+        pos[v] = tam;
+        subir(tam++);
+    }
+
+    private int extraerMin() {
+        int min = heap[0];
+        int ultimo = heap[--tam];
+        if (tam > 0) {
+            heap[0] = ultimo;
+            pos[ultimo] = 0;
+            bajar(0);
+        }
+        return min;
+    }
+
+    private void subir(int i) {
+        int v = heap[i];
+        double cv = clave[v];
+        while (i > 0) {
+            int p = (i - 1) >>> 2;
+            if (clave[heap[p]] <= cv) break;
+            heap[i] = heap[p]; pos[heap[i]] = i;
+            i = p;
+        }
+        heap[i] = v; pos[v] = i;
+    }
+
+    private void bajar(int i) {
+        int v = heap[i];
+        double cv = clave[v];
+        while (true) {
+            int c = ARIDAD * i + 1;
+            if (c >= tam) break;
+            int fin = Math.min(c + ARIDAD, tam), hijo = c;
+            double cm = clave[heap[c]];
+            for (int k = c + 1; k < fin; k++) {
+                double ck = clave[heap[k]];
+                if (ck < cm) { cm = ck; hijo = k; }
+            }
+            if (cm >= cv) break;
+            heap[i] = heap[hijo]; pos[heap[i]] = i;
+            i = hijo;
+        }
+        heap[i] = v; pos[v] = i;
+    }
+
+    // ======= Benchmark =======
+    // Uso: java DijkstraEngine [lado=1000] [consultas=20]
+    //      java DijkstraEngine grafo.csrg [consultas=20]
+    // Grilla lado x lado (tipo red vial) o un grafo .csrg (ver CsrGraph): consultas a todos
+    // contra el Dijkstra con PriorityQueue<nodo> y borrado perezoso que usaba GradoDijkstra,
+    // y consultas punto a punto (corte en t, A*, bidireccional) comparando vértices cerrados.
+    // A* usa la distancia Manhattan de la grilla, así que con un archivo se omite.
+    public static void main(String[] args) throws IOException {
+        boolean archivo = args.length > 0 && args[0].endsWith(".csrg");
+        int lado = archivo ? 0 : args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int q = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        CsrGraph g = archivo ? CsrGraph.read(Paths.get(args[0]))
+                             : CsrGraph.fromUndirected(GraphGenerator.grid(lado, lado, 100, 1000, 7));
+        int n = g.n;
+        if (n == 0) throw new IllegalArgumentException("El grafo no tiene vértices");
+        String nombre = archivo ? args[0] : "grilla " + lado + "x" + lado;
+        System.out.printf("== Dijkstra: %s (n = %d, m = %d arcos), %d consultas ==%n", nombre, n, g.edges(), q);
+
+        Random rnd = new Random(3);
+        int[] s = new int[q], t = new int[q];
+        for (int i = 0; i < q; i++) { s[i] = rnd.nextInt(n); t[i] = rnd.nextInt(n); }
+
+        DijkstraEngine motor = new DijkstraEngine(g);
+        double[] ref = new double[q];
+        long t0 = System.nanoTime();
+        for (int i = 0; i < q; i++) ref[i] = conPriorityQueue(g, s[i])[t[i]];
+        double segPq = (System.nanoTime() - t0) / 1e9;
+        long t1 = System.nanoTime();
+        for (int i = 0; i < q; i++) {
+            motor.run(s[i]);
+            if (motor.dist(t[i]) != ref[i]) throw new IllegalStateException("Distancias distintas en la consulta " + i);
+        }
+        double segMotor = (System.nanoTime() - t1) / 1e9;
+        System.out.printf("%-36s %8.2f s%n", "PriorityQueue + borrado perezoso", segPq);
+        System.out.printf("%-36s %8.2f s (%.2fx)%n", "heap 4-ario indexado, a todos", segMotor, segPq / segMotor);
+
+        // punto a punto: A* con distancia Manhattan x peso mínimo (admisible en la grilla)
+        double minW = Double.MAX_VALUE;
+        for (int e = 0; e < g.edges(); e++) minW = Math.min(minW, g.weights[e]);
+        double pesoMin = minW;
+        int[] destino = new int[1];
+        Heuristic manhattan = v -> pesoMin * (Math.abs(v / lado - destino[0] / lado) + Math.abs(v % lado - destino[0] % lado));
+        System.out.printf("%-36s %8s %22s%n", "punto a punto", "tiempo", "cerrados por consulta");
+        for (int modo = 0; modo < 3; modo++) {
+            if (modo == 1 && archivo) continue;
+            long cerrados = 0;
+            long t2 = System.nanoTime();
+            for (int i = 0; i < q; i++) {
+                destino[0] = t[i];
+                double d;
+                if (modo == 0) { cerrados += motor.run(s[i], t[i]); d = motor.dist(t[i]); }
+                else if (modo == 1) { cerrados += motor.aStar(s[i], t[i], manhattan); d = motor.dist(t[i]); }
+                else { cerrados += motor.bidirectional(s[i], t[i]); d = motor.meetDistance(); }
+                if (d != ref[i]) throw new IllegalStateException("Distancias distintas en la consulta " + i);
+            }
+            double seg = (System.nanoTime() - t2) / 1e9;
+            System.out.printf("%-36s %8.2f s %22.0f%n", new String[]{"  Dijkstra con corte en t", "  A* (Manhattan)", "  bidireccional"}[modo],
+                    seg, (double) cerrados / q);
+        }
+    }
+
+    // referencia: la forma anterior (un objeto por relajación, entradas viejas en la cola)
+    private static double[] conPriorityQueue(CsrGraph g, int s) {
+        double[] d = new double[g.n];
+        Arrays.fill(d, INF);
+        d[s] = 0;
+        PriorityQueue<double[]> pq = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        pq.add(new double[]{0, s});
+        while (!pq.isEmpty()) {
+            double[] cur = pq.poll();
+            int u = (int) cur[1];
+            if (cur[0] != d[u]) continue;
+            for (int e = g.offsets[u]; e < g.offsets[u + 1]; e++) {
+                int v = g.targets[e];
+                if (d[u] + g.weights[e] < d[v]) {
+                    d[v] = d[u] + g.weights[e];
+                    pq.add(new double[]{d[v], v});
+                }
+            }
+        }
+        return d;
+    }
+}
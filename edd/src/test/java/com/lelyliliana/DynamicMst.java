@@ -0,0 +1,342 @@
+package com.lelyliliana;
+
+import java.util.*;
+
+import com.lelyliliana.KruskalTerminalGame.Edge;
+import com.lelyliliana.KruskalTerminalGame.EdgeArrays;
+import com.lelyliliana.KruskalTerminalGame.Graph;
+
+/**
+ * MST (bosque generador mínimo) que se mantiene mientras llegan aristas nuevas y
+ * cambios de peso, en lugar de volver a correr runKruskal desde cero.
+ *
+ * Se basa en la propiedad del ciclo: al agregar (u, v, w), si u y v ya están conectados
+ * la arista solo entra al MST si es más liviana que la arista más pesada del camino u–v
+ * en el árbol, y en ese caso la reemplaza. El camino se consulta con un link-cut tree
+ * (Sleator–Tarjan) en O(log n) amortizado:
+ *  - Cada arista es también un nodo del link-cut tree (u – arista – v), así el máximo
+ *    del camino es un agregado sobre nodos.
+ *  - Los nodos son índices en arreglos primitivos: vértices 0..n-1, arista e en n+e.
+ *  - Splay iterativo (sin recursión), para caminos de millones de nodos.
+ *
+ * Costos: addEdge y bajar un peso, O(log n) amortizado. Subir el peso de una arista del
+ * árbol puede dejar una arista de reemplazo fuera del árbol, y encontrarla exige revisar
+ * las aristas que no están en el MST: ese caso cae en una búsqueda O(m log n).
+ *
+ * El desempate entre pesos iguales es por número de arista, igual que
+ * runKruskal(EdgeArrays), por lo que el peso total siempre coincide.
+ */
+public class DynamicMst {
+
+    private final int n;
+    private int m; // aristas agregadas
+
+    // aristas
+    private int[] eu, ev, ew;
+    private boolean[] enArbol;
+    private int aristasArbol;
+    private long pesoTotal;
+
+    // link-cut tree: un nodo por vértice y uno por arista
+    private int[] izq, der, padre, maximo, pila;
+    private boolean[] invertido;
+    private long[] valor; // clave (peso, arista) de los nodos arista; Long.MIN_VALUE en vértices
+
+    DynamicMst(int n) {
+        if (n < 1) throw new IllegalArgumentException("n debe ser >= 1");
+        this.n = n;
+        int cap = 16;
+        eu = new int[cap]; ev = new int[cap]; ew = new int[cap];
+        enArbol = new boolean[cap];
+        int nodos = n + cap;
+        izq = new int[nodos]; der = new int[nodos]; padre = new int[nodos];
+        maximo = new int[nodos]; pila = new int[nodos];
+        invertido = new boolean[nodos];
+        valor = new long[nodos];
+        for (int x = 0; x < n; x++) nuevoNodo(x, Long.MIN_VALUE);
+    }
+
+    static DynamicMst from(Graph g) {
+        DynamicMst d = new DynamicMst(g.n);
+        for (Edge e : g.edges) d.addEdge(e.u, e.v, e.w);
+        return d;
+    }
+
+    // ======= API =======
+
+    /** Agrega la arista (u, v, w) y devuelve su número (0, 1, 2, ...). */
+    int addEdge(int u, int v, int w) {
+        if (u < 0 || u >= n || v < 0 || v >= n)
+            throw new IllegalArgumentException("Vértice fuera de rango: " + u + " " + v);
+        if (m == eu.length) crecer();
+        int e = m++;
+        eu[e] = u; ev[e] = v; ew[e] = w;
+        nuevoNodo(n + e, clave(e));
+        if (u == v) return e; // lazo: nunca entra
+        if (!connected(u, v)) {
+            agregarAlArbol(e);
+        } else {
+            intentarReemplazo(e);
+        }
+        return e;
+    }
+
+    /** Cambia el peso de la arista e y actualiza el MST. */
+    void updateWeight(int e, int w) {
+        if (e < 0 || e >= m) throw new IllegalArgumentException("Arista inexistente: " + e);
+        int anterior = ew[e];
+        if (w == anterior) return;
+        ew[e] = w;
+        int x = n + e;
+        if (!enArbol[e]) {
+            valor[x] = clave(e);
+            // fuera del árbol: subirla no cambia nada; bajarla es como insertarla de nuevo
+            if (w < anterior && eu[e] != ev[e]) intentarReemplazo(e);
+            return;
+        }
+        pesoTotal += (long) w - anterior;
+        acceder(x); // x queda como raíz de su árbol auxiliar: se puede cambiar el valor
+        valor[x] = clave(e);
+        actualizar(x);
+        if (w > anterior) buscarReemplazo(e);
+    }
+
+    boolean connected(int u, int v) { return raiz(u) == raiz(v); }
+
+    long totalWeight() { return pesoTotal; }
+
+    int treeEdgeCount() { return aristasArbol; }
+
+    int edgeCount() { return m; }
+
+    boolean inTree(int e) { return enArbol[e]; }
+
+    List<Edge> treeEdges() {
+        List<Edge> r = new ArrayList<>(aristasArbol);
+        for (int e = 0; e < m; e++) if (enArbol[e]) r.add(new Edge(e, eu[e], ev[e], ew[e]));
+        return r;
+    }
+
+    /** Todas las aristas actuales, con la posición igual al número de arista. */
+    EdgeArrays toEdgeArrays() {
+        EdgeArrays ea = new EdgeArrays(n, m);
+        for (int e = 0; e < m; e++) ea.add(e, eu[e], ev[e], ew[e]);
+        return ea;
+    }
+
+    // ======= Mantenimiento del MST =======
+
+    // e no está en el árbol y sus extremos están conectados: propiedad del ciclo
+    private void intentarReemplazo(int e) {
+        int u = eu[e], v = ev[e];
+        hacerRaiz(u);
+        acceder(v);
+        int peor = maximo[v] - n;
+        if (valor[maximo[v]] > clave(e)) {
+            quitarDelArbol(peor);
+            agregarAlArbol(e);
+        }
+    }
+
+    // e (del árbol) se volvió más pesada: la mejor arista que cruza el corte puede ser otra
+    private void buscarReemplazo(int e) {
+        quitarDelArbol(e);
+        int mejor = e;
+        for (int f = 0; f < m; f++) {
+            if (enArbol[f] || f == e || clave(f) > clave(mejor) || eu[f] == ev[f]) continue;
+            if (!connected(eu[f], ev[f])) mejor = f;
+        }
+        agregarAlArbol(mejor);
+    }
+
+    private void agregarAlArbol(int e) {
+        enlazar(eu[e], n + e);
+        enlazar(n + e, ev[e]);
+        enArbol[e] = true;
+        aristasArbol++;
+        pesoTotal += ew[e];
+    }
+
+    private void quitarDelArbol(int e) {
+        cortar(eu[e], n + e);
+        cortar(n + e, ev[e]);
+        enArbol[e] = false;
+        aristasArbol--;
+        pesoTotal -= ew[e];
+    }
+
+    private long clave(int e) { return (((long) ew[e]) << 32) | e; }
+
+    private void crecer() {
+        int cap = eu.length * 2;
+        eu = Arrays.copyOf(eu, cap); ev = Arrays.copyOf(ev, cap); ew = Arrays.copyOf(ew, cap);
+        enArbol = Arrays.copyOf(enArbol, cap);
+        int nodos = n + cap;
+        izq = Arrays.copyOf(izq, nodos); der = Arrays.copyOf(der, nodos); padre = Arrays.copyOf(padre, nodos);
+        maximo = Arrays.copyOf(maximo, nodos); pila = Arrays.copyOf(pila, nodos);
+        invertido = Arrays.copyOf(invertido, nodos);
+        valor = Arrays.copyOf(valor, nodos);
+    }
+
+    // ======= Link-cut tree =======
+
+    private void nuevoNodo(int x, long val) {
+        izq[x] = der[x] = padre[x] = -1;
+        invertido[x] = false;
+        valor[x] = val;
+        maximo[x] = x;
+    }
+
+    // raíz de su árbol auxiliar (el padre, si existe, es un "path-parent")
+    private boolean esRaizAux(int x) {
+        int p = padre[x];
+        return p == -1 || (izq[p] != x && der[p] != x);
+    }
+
+    private void actualizar(int x) {
+        int mx = x;
+        if (izq[x] != -1 && valor[maximo[izq[x]]] > valor[mx]) mx = maximo[izq[x]];
+        if (der[x] != -1 && valor[maximo[der[x]]] > valor[mx]) mx = maximo[der[x]];
+        maximo[x] = mx;
+    }
+
+    private void empujar(int x) {
+        if (!invertido[x]) return;
+        int t = izq[x]; izq[x] = der[x]; der[x] = t;
+        if (izq[x] != -1) invertido[izq[x]] ^= true;
+        if (der[x] != -1) invertido[der[x]] ^= true;
+        invertido[x] = false;
+    }
+
+    private void rotar(int x) {
+        int y = padre[x], z = padre[y];
+        boolean xIzq = izq[y] == x;
+        if (!esRaizAux(y)) {
+            if (izq[z] == y) izq[z] = x; else der[z] = x;
+        }
+        padre[x] = z;
+        int b;
+        if (xIzq) { b = der[x]; izq[y] = b; der[x] = y; }
+        else { b = izq[x]; der[y] = b; izq[x] = y; }
+        if (b != -1) padre[b] = y;
+        padre[y] = x;
+        actualizar(y);
+        actualizar(x);
+    }
+
+    private void splay(int x) {
+        // bajar las inversiones pendientes desde la raíz auxiliar hasta x
+        int tope = 0;
+        pila[tope++] = x;
+        for (int y = x; !esRaizAux(y); y = padre[y]) pila[tope++] = padre[y];
+        while (tope > 0) empujar(pila[--tope]);
+
+        while (!esRaizAux(x)) {
+            int y = padre[x];
+            if (!esRaizAux(y)) {
+                int z = padre[y];
+                rotar((izq[z] == y) == (izq[y] == x) ? y : x); // zig-zig : zig-zag
+            }
+            rotar(x);
+        }
+    }
+
+    // deja en un mismo árbol auxiliar el camino raíz–x; x queda como raíz auxiliar
+    private void acceder(int x) {
+        int ultimo = -1;
+        for (int y = x; y != -1; y = padre[y]) {
+            splay(y);
+            der[y] = ultimo;
+            actualizar(y);
+            ultimo = y;
+        }
+        splay(x);
+    }
+
+    private void hacerRaiz(int x) {
+        acceder(x);
+        invertido[x] ^= true;
+        empujar(x);
+    }
+
+    private int raiz(int x) {
+        acceder(x);
+        while (true) {
+            empujar(x);
+            if (izq[x] == -1) break;
+            x = izq[x];
+        }
+        splay(x);
+        return x;
+    }
+
+    private void enlazar(int x, int y) {
+        hacerRaiz(x);
+        padre[x] = y;
+    }
+
+    // x e y deben ser adyacentes
+    private void cortar(int x, int y) {
+        hacerRaiz(x);
+        acceder(y);
+        // el camino es solo x–y: x es el hijo izquierdo de y
+        izq[y] = -1;
+        padre[x] = -1;
+        actualizar(y);
+    }
+
+    // ======= Benchmark =======
+    // Uso: java DynamicMst [n=200000] [aristasIniciales=800000] [actualizaciones=200000] [semilla=5]
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int iniciales = args.length > 1 ? Integer.parseInt(args[1]) : 4 * n;
+        int cambios = args.length > 2 ? Integer.parseInt(args[2]) : n;
+        long semilla = args.length > 3 ? Long.parseLong(args[3]) : 5;
+        int maxW = 1_000_000;
+        SplittableRandom rnd = new SplittableRandom(semilla);
+
+        System.out.println("== MST dinámico (link-cut tree) vs recalcular con Kruskal ==");
+        long t0 = System.nanoTime();
+        DynamicMst d = new DynamicMst(n);
+        for (int i = 0; i < iniciales; i++) d.addEdge(rnd.nextInt(n), rnd.nextInt(n), 1 + rnd.nextInt(maxW));
+        double msCarga = (System.nanoTime() - t0) / 1e6;
+        System.out.printf("n = %d, aristas iniciales = %d: carga incremental en %.0f ms%n", n, iniciales, msCarga);
+        verificar(d);
+
+        // mezcla de inserciones y bajadas de peso (el caso polilogarítmico)
+        long t1 = System.nanoTime();
+        for (int i = 0; i < cambios; i++) {
+            if (rnd.nextBoolean()) d.addEdge(rnd.nextInt(n), rnd.nextInt(n), 1 + rnd.nextInt(maxW));
+            else {
+                int e = rnd.nextInt(d.edgeCount());
+                d.updateWeight(e, Math.max(1, d.ew[e] - 1 - rnd.nextInt(maxW / 2)));
+            }
+        }
+        double usPorCambio = (System.nanoTime() - t1) / 1e3 / cambios;
+        System.out.printf("%d inserciones / bajadas de peso: %.2f µs por cambio%n", cambios, usPorCambio);
+
+        long t2 = System.nanoTime();
+        verificar(d);
+        double msKruskal = (System.nanoTime() - t2) / 1e6;
+        System.out.printf("Recalcular con runKruskal: %.0f ms por cambio (%.0fx más lento)%n",
+                msKruskal, msKruskal * 1000 / usPorCambio);
+
+        // subidas de peso: pueden requerir la búsqueda lineal de reemplazo
+        int subidas = Math.min(cambios, 200);
+        long t3 = System.nanoTime();
+        for (int i = 0; i < subidas; i++) {
+            int e = rnd.nextInt(d.edgeCount());
+            d.updateWeight(e, d.ew[e] + 1 + rnd.nextInt(maxW));
+        }
+        System.out.printf("%d subidas de peso: %.2f ms por cambio%n", subidas, (System.nanoTime() - t3) / 1e6 / subidas);
+        verificar(d);
+    }
+
+    private static void verificar(DynamicMst d) {
+        KruskalTerminalGame.KruskalResult r = KruskalTerminalGame.runKruskal(d.toEdgeArrays());
+        if (r.totalWeight != d.totalWeight() || r.mst.size() != d.treeEdgeCount())
+            throw new IllegalStateException("El MST dinámico no coincide con Kruskal: "
+                    + d.totalWeight() + " vs " + r.totalWeight);
+        System.out.printf("Verificado contra Kruskal: %d aristas en el MST, peso = %d%n", d.treeEdgeCount(), d.totalWeight());
+    }
+}
@@ -0,0 +1,330 @@
+package com.lelyliliana;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Evaluación por lotes de los requisitos de tema de grado (las reglas de
+ * VerificacionTemaGrado / GradoDijkstra) para cohortes completas.
+ *
+ *  - Los registros se leen por bloques de LOTE a columnas primitivas (total, aprobados,
+ *    promedio, sanción), desde CSV o desde un binario de registros fijos.
+ *  - Las reglas se evalúan columna por columna, en lazos simples sobre arreglos, y dejan
+ *    la máscara de requisitos de cada estudiante.
+ *  - El plan mínimo depende solo de la máscara y, si faltan créditos, de los semestres
+ *    que faltan (costoCumplirCreditos). El plan sale de la tabla de costo al objetivo de
+ *    GradoDijkstra (una por juego de parámetros y semestres) y la línea de salida de cada
+ *    clave distinta queda en caché: el resto de la cohorte es una búsqueda en un mapa.
+ *
+ * CSV de entrada:  id,totalCreditos,creditosAprobados,promedio,sancion   (cabecera opcional)
+ * Binario:         int MAGIC, long registros, y por registro
+ *                  int id, int total, int aprobados, double promedio, byte sancion
+ * Salida (CSV):    id,estado,cumple,costo,plan   (estado en bits CPS: créditos, promedio, sanciones)
+ *
+ * Cada registro debe cumplir 0 <= aprobados <= total y 0 <= promedio <= 5, y la sanción debe
+ * ser true/false/1/0 en el CSV (0 o 1 en el binario); si no, la lectura falla con IOException
+ * indicando la línea (CSV) o el número de registro (binario). La cabecera del CSV se reconoce
+ * porque su primer campo es "id".
+ */
+public class EvaluacionLoteGrado {
+
+    static final int MAGIC = 0x434F484F; // "COHO"
+    static final int LOTE = 1 << 16;
+    static final int BYTES_REGISTRO = 4 + 4 + 4 + 8 + 1;
+
+    // ======= Columnas de un lote =======
+    static final class Lote {
+        final int[] id = new int[LOTE], total = new int[LOTE], aprobados = new int[LOTE];
+        final double[] promedio = new double[LOTE];
+        final boolean[] sancion = new boolean[LOTE];
+        final int[] estado = new int[LOTE];
+        final long[] clave = new long[LOTE];
+        int tam;
+    }
+
+    /** null si el registro es válido; si no, la descripción del problema. */
+    static String errorRegistro(int total, int aprobados, double promedio) {
+        if (total < 0) return "total de créditos negativo (" + total + ")";
+        if (aprobados < 0 || aprobados > total) return "créditos aprobados fuera de 0.." + total + " (" + aprobados + ")";
+        if (!(promedio >= 0 && promedio <= 5)) return "promedio fuera de 0..5 (" + promedio + ")";
+        return null;
+    }
+
+    /** Fuente de registros por lotes: llena las columnas y devuelve la cantidad (0 = fin). */
+    interface Fuente extends Closeable {
+        int leer(Lote lote) throws IOException;
+    }
+
+    static Fuente abrir(Path archivo) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(archivo))) {
+            if (Files.size(archivo) >= 12 && in.readInt() == MAGIC) return new FuenteBinaria(archivo);
+        }
+        return new FuenteCsv(Files.newBufferedReader(archivo, StandardCharsets.UTF_8));
+    }
+
+    static final class FuenteCsv implements Fuente {
+        private final BufferedReader in;
+        private long linea;
+
+        FuenteCsv(BufferedReader in) { this.in = in; }
+
+        @Override public int leer(Lote l) throws IOException {
+            int k = 0;
+            String s;
+            while (k < LOTE && (s = in.readLine()) != null) {
+                linea++;
+                if (s.isBlank() || (linea == 1 && esCabecera(s))) continue;
+                try {
+                    int a = s.indexOf(','), b = s.indexOf(',', a + 1), c = s.indexOf(',', b + 1), d = s.indexOf(',', c + 1);
+                    if (a < 0 || b < 0 || c < 0 || d < 0) throw new NumberFormatException("faltan columnas");
+                    if (s.indexOf(',', d + 1) >= 0) throw new NumberFormatException("sobran columnas");
+                    l.id[k] = Integer.parseInt(s, 0, a, 10);
+                    l.total[k] = Integer.parseInt(s, a + 1, b, 10);
+                    l.aprobados[k] = Integer.parseInt(s, b + 1, c, 10);
+                    l.promedio[k] = decimal(s, c + 1, d);
+                    l.sancion[k] = booleano(s, d + 1, s.length());
+                } catch (NumberFormatException e) {
+                    throw new IOException("Línea " + linea + " inválida (" + e.getMessage() + "): " + s, e);
+                }
+                String error = errorRegistro(l.total[k], l.aprobados[k], l.promedio[k]);
+                if (error != null) throw new IOException("Línea " + linea + " inválida: " + error);
+                k++;
+            }
+            return l.tam = k;
+        }
+
+        private static boolean esCabecera(String s) {
+            int a = s.indexOf(',');
+            return (a < 0 ? s : s.substring(0, a)).trim().equalsIgnoreCase("id");
+        }
+
+        // sanción: exactamente true/false/1/0 (sin distinguir mayúsculas, espacios alrededor)
+        private static boolean booleano(String s, int ini, int fin) {
+            while (ini < fin && Character.isWhitespace(s.charAt(ini))) ini++;
+            while (fin > ini && Character.isWhitespace(s.charAt(fin - 1))) fin--;
+            int largo = fin - ini;
+            if (largo == 4 && s.regionMatches(true, ini, "true", 0, 4)) return true;
+            if (largo == 5 && s.regionMatches(true, ini, "false", 0, 5)) return false;
+            if (largo == 1 && (s.charAt(ini) == '1' || s.charAt(ini) == '0')) return s.charAt(ini) == '1';
+            throw new NumberFormatException("sanción debe ser true, false, 1 o 0");
+        }
+
+        // decimales simples (3.45) sin crear String; otros formatos con Double.parseDouble
+        private static double decimal(String s, int ini, int fin) {
+            long entero = 0, frac = 0, escala = 1;
+            int i = ini;
+            while (i < fin && s.charAt(i) >= '0' && s.charAt(i) <= '9') entero = entero * 10 + (s.charAt(i++) - '0');
+            if (i < fin && s.charAt(i) == '.') {
+                i++;
+                while (i < fin && s.charAt(i) >= '0' && s.charAt(i) <= '9' && escala < 1_000_000_000L) {
+                    frac = frac * 10 + (s.charAt(i++) - '0');
+                    escala *= 10;
+                }
+            }
+            if (i != fin || i == ini) return Double.parseDouble(s.substring(ini, fin));
+            return entero + (double) frac / escala;
+        }
+
+        @Override public void close() throws IOException { in.close(); }
+    }
+
+    static final class FuenteBinaria implements Fuente {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BYTES_REGISTRO * 4096);
+        private long restantes, leidos;
+
+        FuenteBinaria(Path archivo) throws IOException {
+            ch = FileChannel.open(archivo, StandardOpenOption.READ);
+            ByteBuffer cab = ByteBuffer.allocate(12);
+            while (cab.hasRemaining() && ch.read(cab) >= 0) { }
+            cab.flip();
+            if (cab.remaining() < 12 || cab.getInt() != MAGIC) throw new IOException("No es una cohorte binaria: " + archivo);
+            restantes = cab.getLong();
+            if (ch.size() != 12 + restantes * BYTES_REGISTRO) throw new IOException("Tamaño inconsistente con " + restantes + " registros");
+            buf.limit(0);
+        }
+
+        @Override public int leer(Lote l) throws IOException {
+            int k = 0;
+            while (k < LOTE && restantes > 0) {
+                if (buf.remaining() < BYTES_REGISTRO) {
+                    buf.compact();
+                    while (buf.position() < BYTES_REGISTRO && ch.read(buf) >= 0) { }
+                    buf.flip();
+                    if (buf.remaining() < BYTES_REGISTRO) throw new EOFException("Cohorte binaria truncada");
+                }
+                l.id[k] = buf.getInt();
+                l.total[k] = buf.getInt();
+                l.aprobados[k] = buf.getInt();
+                l.promedio[k] = buf.getDouble();
+                byte sancion = buf.get();
+                String error = sancion != 0 && sancion != 1 ? "sanción debe ser 0 o 1 (" + sancion + ")"
+                        : errorRegistro(l.total[k], l.aprobados[k], l.promedio[k]);
+                l.sancion[k] = sancion == 1;
+                if (error != null) throw new IOException("Registro " + (leidos + 1) + " inválido: " + error);
+                k++;
+                leidos++;
+                restantes--;
+            }
+            return l.tam = k;
+        }
+
+        @Override public void close() throws IOException { ch.close(); }
+    }
+
+    // ======= Evaluación =======
+
+    /** Reglas de tema de grado sobre las columnas del lote: deja estado[] y clave[]. */
+    static void evaluar(Lote l, GradoDijkstra.Parametros par) {
+        int n = l.tam;
+        int[] estado = l.estado, total = l.total, aprobados = l.aprobados;
+        long[] clave = l.clave;
+        double[] promedio = l.promedio;
+        boolean[] sancion = l.sancion;
+        double umbral = par.porcUmbralCreditos();
+        // una pasada por regla, sin ramas dependientes de otras columnas
+        for (int i = 0; i < n; i++) estado[i] = aprobados[i] >= umbral * total[i] ? GradoDijkstra.CRED_OK : 0;
+        for (int i = 0; i < n; i++) if (promedio[i] >= 3.0) estado[i] |= GradoDijkstra.PROM_OK;
+        for (int i = 0; i < n; i++) if (!sancion[i]) estado[i] |= GradoDijkstra.SAN_OK;
+        // clave del plan: máscara en los 3 bits bajos y semestres de créditos faltantes encima
+        // (long: los semestres pueden llegar a 2^31 - 1 con creditosPorSemestre = 1)
+        for (int i = 0; i < n; i++) {
+            int semestres = (estado[i] & GradoDijkstra.CRED_OK) != 0 ? 0
+                    : (int) GradoDijkstra.costoCumplirCreditos(par, total[i], aprobados[i]);
+            clave[i] = estado[i] | (long) semestres << 3;
+        }
+    }
+
+    /** Planes ya calculados: clave -> texto "cumple,costo,plan" para la salida. */
+    static final class CachePlanes {
+        private final PlanificadorRequisitos.MapaEstados indice = new PlanificadorRequisitos.MapaEstados();
+        private final List<String> lineas = new ArrayList<>();
+        private final GradoDijkstra.Parametros par;
+        private final int[] acciones = new int[Long.SIZE];
+
+        CachePlanes(GradoDijkstra.Parametros par) { this.par = par; }
+
+        String plan(long clave) {
+            int i = indice.get(clave);
+            if (i >= 0) return lineas.get(i);
+            int estado = (int) (clave & GradoDijkstra.OBJETIVO);
+            PlanificadorRequisitos.TablaPlanes tabla = GradoDijkstra.tablaPlanes(par, (int) (clave >>> 3));
+            StringBuilder sb = new StringBuilder();
+            sb.append(estado == GradoDijkstra.OBJETIVO ? "si" : "no").append(',');
+            if (!tabla.posible(estado)) {
+                sb.append("INF,");
+            } else {
+                sb.append(String.format(Locale.ROOT, "%.2f", tabla.costo(estado))).append(',');
+                PlanificadorRequisitos modelo = tabla.modelo;
+                for (int k = 0, largo = tabla.plan(estado, acciones); k < largo; k++) {
+                    if (k > 0) sb.append('+');
+                    sb.append(modelo.requisitos[Long.numberOfTrailingZeros(modelo.cumple(acciones[k]))]);
+                }
+            }
+            String linea = sb.toString();
+            indice.put(clave, lineas.size());
+            lineas.add(linea);
+            return linea;
+        }
+
+        int planificados() { return lineas.size(); }
+    }
+
+    /** Procesa toda la fuente y escribe una línea por estudiante. Devuelve los registros. */
+    static long procesar(Fuente fuente, Writer out, CachePlanes cache) throws IOException {
+        Lote l = new Lote();
+        StringBuilder sb = new StringBuilder(1 << 16);
+        char[] bits = new char[3];
+        long total = 0;
+        out.write("id,estado,cumple,costo,plan\n");
+        while (fuente.leer(l) > 0) {
+            evaluar(l, cache.par);
+            for (int i = 0; i < l.tam; i++) {
+                int e = l.estado[i];
+                bits[0] = (e & GradoDijkstra.CRED_OK) != 0 ? '1' : '0';
+                bits[1] = (e & GradoDijkstra.PROM_OK) != 0 ? '1' : '0';
+                bits[2] = (e & GradoDijkstra.SAN_OK) != 0 ? '1' : '0';
+                sb.append(l.id[i]).append(',').append(bits).append(',')
+                  .append(cache.plan(l.clave[i])).append('\n');
+                if (sb.length() > (1 << 16) - 256) { out.append(sb); sb.setLength(0); }
+            }
+            total += l.tam;
+        }
+        out.append(sb);
+        out.flush();
+        return total;
+    }
+
+    // ======= Main =======
+    // Uso: java EvaluacionLoteGrado entrada.(csv|bin) salida.csv [umbral,creditosPorSemestre,costoPromedio,costoSancion]
+    //      java EvaluacionLoteGrado --generar n salida (csv|bin) [semilla]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Uso: java EvaluacionLoteGrado entrada.(csv|bin) salida.csv [umbral,creditosPorSemestre,costoPromedio,costoSancion]");
+            System.out.println("     java EvaluacionLoteGrado --generar n salida (csv|bin) [semilla]");
+            return;
+        }
+        if (args[0].equals("--generar")) {
+            int n = Integer.parseInt(args[1]);
+            long t0 = System.nanoTime();
+            generar(n, Paths.get(args[2]), args.length > 3 && args[3].equals("bin"), args.length > 4 ? Long.parseLong(args[4]) : 1);
+            System.out.printf("%d registros generados en %.2f s%n", n, (System.nanoTime() - t0) / 1e9);
+            return;
+        }
+        GradoDijkstra.Parametros par = GradoDijkstra.POR_DEFECTO;
+        if (args.length > 2) {
+            String[] p = args[2].split(",");
+            if (p.length != 4) throw new IllegalArgumentException("Se esperaban 4 parámetros separados por comas: " + args[2]);
+            par = new GradoDijkstra.Parametros(Double.parseDouble(p[0]), Integer.parseInt(p[1]),
+                    Double.parseDouble(p[2]), Double.parseDouble(p[3]));
+        }
+        CachePlanes cache = new CachePlanes(par);
+        long t0 = System.nanoTime();
+        long registros;
+        try (Fuente f = abrir(Paths.get(args[0]));
+             Writer out = Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            registros = procesar(f, out, cache);
+        }
+        double seg = (System.nanoTime() - t0) / 1e9;
+        System.out.printf("%d registros en %.2f s (%.0f registros/s), %d planes distintos calculados%n",
+                registros, seg, registros / seg, cache.planificados());
+    }
+
+    // cohorte sintética: programas de 120..180 créditos, promedios 2.0..5.0, ~10 % con sanción
+    static void generar(int n, Path salida, boolean binario, long semilla) throws IOException {
+        SplittableRandom rnd = new SplittableRandom(semilla);
+        if (binario) {
+            try (FileChannel ch = FileChannel.open(salida, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buf = ByteBuffer.allocateDirect(BYTES_REGISTRO * 4096);
+                buf.putInt(MAGIC).putLong(n);
+                for (int i = 0; i < n; i++) {
+                    if (buf.remaining() < BYTES_REGISTRO) { buf.flip(); while (buf.hasRemaining()) ch.write(buf); buf.clear(); }
+                    int total = 120 + rnd.nextInt(61);
+                    buf.putInt(i).putInt(total).putInt(rnd.nextInt(total + 1))
+                       .putDouble(Math.round((2.0 + 3.0 * rnd.nextDouble()) * 100) / 100.0)
+                       .put((byte) (rnd.nextInt(10) == 0 ? 1 : 0));
+                }
+                buf.flip();
+                while (buf.hasRemaining()) ch.write(buf);
+            }
+        } else {
+            try (BufferedWriter out = Files.newBufferedWriter(salida, StandardCharsets.UTF_8)) {
+                out.write("id,totalCreditos,creditosAprobados,promedio,sancion\n");
+                StringBuilder sb = new StringBuilder();
+                for (int i = 0; i < n; i++) {
+                    int total = 120 + rnd.nextInt(61);
+                    sb.setLength(0);
+                    sb.append(i).append(',').append(total).append(',').append(rnd.nextInt(total + 1)).append(',')
+                      .append(Math.round((2.0 + 3.0 * rnd.nextDouble()) * 100) / 100.0).append(',')
+                      .append(rnd.nextInt(10) == 0).append('\n');
+                    out.append(sb);
+                }
+            }
+        }
+    }
+}
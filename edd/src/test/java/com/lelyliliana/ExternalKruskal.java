@@ -0,0 +1,448 @@
+package com.lelyliliana;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import com.lelyliliana.KruskalTerminalGame.DSU;
+
+/**
+ * Kruskal "fuera de memoria" para archivos de aristas más grandes que la RAM.
+ *
+ * Tubería:
+ *  1) Lectura en streaming (NIO con búfer) del archivo de aristas, en texto o binario.
+ *  2) Ordenamiento externo por peso: se arman "runs" de a lo sumo 'aristasPorRun' aristas,
+ *     cada run se ordena en memoria (claves long primitivas) y se escribe a un temporal.
+ *  3) Mezcla k-vías de los runs (con un heap pequeño de k entradas) que alimenta directamente
+ *     al union-find. Solo el DSU de tamaño n y un búfer por run quedan en memoria.
+ *
+ * Formatos de entrada:
+ *  - Texto (igual que la carga manual de KruskalTerminalGame): "n m" y luego m líneas "u v w".
+ *  - Binario: int MAGIC, int n, long m, y m registros (int u, int v, int w) big-endian.
+ *    Se detecta automáticamente por el número mágico.
+ *  - Grafo CSR (.csrg, ver CsrGraph): se recorre por ventanas mapeadas, sin cargarlo. De un
+ *    CSR no dirigido se toma cada arista una vez (u < v); uno dirigido se simetriza al vuelo.
+ *
+ * Uso: java ExternalKruskal archivo [aristasPorRun=4000000] [salidaMst]
+ */
+public class ExternalKruskal {
+
+    static final int MAGIC = 0x4B454447; // "KEDG"
+    static final int BYTES_ARISTA = 12;
+    private static final int BUFFER = 1 << 20;
+    private static final int MAX_FAN_IN = 256; // runs mezclados a la vez
+
+    // ======= Resultado =======
+    static class Result {
+        int n;
+        long m, mstEdges, totalWeight;
+        int runs;
+        double segRuns, segMezcla;
+
+        double aristasPorSegundo() { return m / (segRuns + segMezcla); }
+    }
+
+    // ======= Lectura de aristas =======
+    interface EdgeReader extends Closeable {
+        int vertices();
+        /** Lee la siguiente arista en rec[0..2] = (u, v, w); false al terminar. */
+        boolean next(int[] rec) throws IOException;
+    }
+
+    static EdgeReader open(Path archivo) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(archivo))) {
+            if (Files.size(archivo) >= 16) {
+                int magic = in.readInt();
+                if (magic == MAGIC) return new BinaryEdgeReader(archivo);
+                if (magic == CsrGraph.MAGIC) return new CsrEdgeReader(archivo);
+            }
+        }
+        return new TextEdgeReader(archivo);
+    }
+
+    /**
+     * Aristas de un .csrg leídas en streaming: las tres secciones (offsets, targets, weights)
+     * se recorren en orden con ventanas mapeadas de VENTANA elementos, así que en el heap solo
+     * queda el DSU. Archivo no dirigido: cada arista una vez (el arco con u < v). Dirigido:
+     * cada arco u -> v da la arista {min, max}. No se eliminan pares repetidos (Kruskal se
+     * queda con el de menor peso y el DSU descarta los demás); los lazos se omiten.
+     */
+    static class CsrEdgeReader implements EdgeReader {
+        private static final int VENTANA = 1 << 20; // elementos por región mapeada
+        private final Path archivo;
+        private final FileChannel ch;
+        private final CsrGraph.Cabecera cab;
+        private IntBuffer offsets, targets;
+        private DoubleBuffer weights;
+        private long baseOffsets, baseTargets, baseWeights;
+        private int u = -1;   // vértice de origen actual
+        private long finU;    // offsets[u + 1]
+        private long e;       // siguiente arco
+
+        CsrEdgeReader(Path archivo) throws IOException {
+            this.archivo = archivo;
+            ch = FileChannel.open(archivo, StandardOpenOption.READ);
+            try {
+                cab = CsrGraph.leerCabecera(ch, archivo);
+            } catch (IOException ex) {
+                ch.close();
+                throw ex;
+            }
+        }
+
+        public int vertices() { return cab.n; }
+
+        public boolean next(int[] rec) throws IOException {
+            while (e < cab.m) {
+                while (e >= finU) {
+                    if (++u >= cab.n) throw corrupto("arcos fuera de los offsets");
+                    long fin = offset(u + 1);
+                    if (fin < finU || fin > cab.m) throw corrupto("offsets no crecientes en " + u);
+                    finU = fin;
+                }
+                long p = e++;
+                int v = target(p);
+                if (v < 0 || v >= cab.n) throw corrupto("destino fuera de rango en el arco " + p);
+                if (u == v || (cab.noDirigido && u > v)) continue;
+                double x = weight(p);
+                int w = (int) x;
+                if (w != x) throw new IOException(archivo + ": Kruskal usa pesos enteros (arco " + p + ")");
+                rec[0] = Math.min(u, v); rec[1] = Math.max(u, v); rec[2] = w;
+                return true;
+            }
+            return false;
+        }
+
+        private IOException corrupto(String detalle) { return new IOException("Grafo CSR corrupto en " + archivo + ": " + detalle); }
+
+        private int offset(long i) throws IOException {
+            if (offsets == null || i < baseOffsets || i >= baseOffsets + offsets.limit()) {
+                baseOffsets = i;
+                offsets = mapear(cab.posOffsets, 4, i, cab.n + 1L).asIntBuffer();
+            }
+            return offsets.get((int) (i - baseOffsets));
+        }
+
+        private int target(long i) throws IOException {
+            if (targets == null || i < baseTargets || i >= baseTargets + targets.limit()) {
+                baseTargets = i;
+                targets = mapear(cab.posTargets, 4, i, cab.m).asIntBuffer();
+            }
+            return targets.get((int) (i - baseTargets));
+        }
+
+        private double weight(long i) throws IOException {
+            if (weights == null || i < baseWeights || i >= baseWeights + weights.limit()) {
+                baseWeights = i;
+                weights = mapear(cab.posWeights, 8, i, cab.m).asDoubleBuffer();
+            }
+            return weights.get((int) (i - baseWeights));
+        }
+
+        // ventana [desde, desde + VENTANA) de una sección de 'total' elementos de 'tam' bytes
+        private ByteBuffer mapear(long seccion, int tam, long desde, long total) throws IOException {
+            long c = Math.min(VENTANA, total - desde);
+            return ch.map(FileChannel.MapMode.READ_ONLY, seccion + desde * tam, c * tam);
+        }
+
+        public void close() throws IOException { ch.close(); }
+    }
+
+    static class BinaryEdgeReader implements EdgeReader {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER);
+        private final int n;
+        private long restantes;
+
+        BinaryEdgeReader(Path archivo) throws IOException {
+            ch = FileChannel.open(archivo, StandardOpenOption.READ);
+            buf.limit(0);
+            llenar(16);
+            if (buf.getInt() != MAGIC) throw new IOException("Archivo binario de aristas inválido: " + archivo);
+            n = buf.getInt();
+            restantes = buf.getLong();
+        }
+
+        public int vertices() { return n; }
+
+        public boolean next(int[] rec) throws IOException {
+            if (restantes == 0) return false;
+            if (buf.remaining() < BYTES_ARISTA && !llenar(BYTES_ARISTA))
+                throw new EOFException("Faltan " + restantes + " aristas en el archivo");
+            rec[0] = buf.getInt(); rec[1] = buf.getInt(); rec[2] = buf.getInt();
+            restantes--;
+            return true;
+        }
+
+        // compacta y rellena el búfer hasta tener al menos 'minimo' bytes
+        private boolean llenar(int minimo) throws IOException {
+            buf.compact();
+            while (buf.position() < minimo) {
+                if (ch.read(buf) < 0) { buf.flip(); return buf.remaining() >= minimo; }
+            }
+            buf.flip();
+            return true;
+        }
+
+        public void close() throws IOException { ch.close(); }
+    }
+
+    static class TextEdgeReader implements EdgeReader {
+        private final BufferedReader in;
+        private final int n;
+        private long restantes;
+        private final int[] cab = new int[2];
+
+        TextEdgeReader(Path archivo) throws IOException {
+            in = Files.newBufferedReader(archivo, StandardCharsets.UTF_8);
+            String linea = siguienteLinea();
+            if (linea == null || parsear(linea, cab) != 2) throw new IOException("Se esperaba la cabecera 'n m'");
+            n = cab[0];
+            restantes = cab[1];
+        }
+
+        public int vertices() { return n; }
+
+        public boolean next(int[] rec) throws IOException {
+            if (restantes == 0) return false;
+            String linea = siguienteLinea();
+            if (linea == null) throw new EOFException("Faltan " + restantes + " aristas en el archivo");
+            if (parsear(linea, rec) != 3) throw new IOException("Línea inválida (se esperaba 'u v w'): " + linea);
+            restantes--;
+            return true;
+        }
+
+        private String siguienteLinea() throws IOException {
+            String s;
+            while ((s = in.readLine()) != null && s.isBlank()) { }
+            return s;
+        }
+
+        // enteros separados por espacios, sin expresiones regulares ni objetos intermedios;
+        // -1 si un token no es entero de 32 bits o si sobran tokens tras llenar 'out'
+        static int parsear(String s, int[] out) {
+            int k = 0, i = 0, len = s.length();
+            while (i < len) {
+                while (i < len && Character.isWhitespace(s.charAt(i))) i++;
+                if (i == len) break;
+                if (k == out.length) return -1;
+                boolean neg = s.charAt(i) == '-';
+                if (neg || s.charAt(i) == '+') i++;
+                long limite = neg ? Integer.MAX_VALUE + 1L : Integer.MAX_VALUE;
+                int ini = i;
+                long v = 0;
+                while (i < len && s.charAt(i) >= '0' && s.charAt(i) <= '9') {
+                    v = v * 10 + (s.charAt(i++) - '0');
+                    if (v > limite) return -1;
+                }
+                if (i == ini || (i < len && !Character.isWhitespace(s.charAt(i)))) return -1;
+                out[k++] = (int) (neg ? -v : v);
+            }
+            return k;
+        }
+
+        public void close() throws IOException { in.close(); }
+    }
+
+    // ======= Runs ordenados en disco =======
+    static class RunWriter implements Closeable {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER);
+
+        RunWriter(Path archivo) throws IOException {
+            ch = FileChannel.open(archivo, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void write(int u, int v, int w) throws IOException {
+            if (buf.remaining() < BYTES_ARISTA) flush();
+            buf.putInt(u).putInt(v).putInt(w);
+        }
+
+        private void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) ch.write(buf);
+            buf.clear();
+        }
+
+        public void close() throws IOException { flush(); ch.close(); }
+    }
+
+    static class RunReader implements Closeable {
+        private final FileChannel ch;
+        private final ByteBuffer buf;
+        int u, v, w;
+
+        RunReader(Path archivo, int bytesBuffer) throws IOException {
+            ch = FileChannel.open(archivo, StandardOpenOption.READ);
+            buf = ByteBuffer.allocateDirect(Math.max(bytesBuffer - bytesBuffer % BYTES_ARISTA, BYTES_ARISTA));
+            buf.limit(0);
+        }
+
+        boolean advance() throws IOException {
+            if (buf.remaining() < BYTES_ARISTA) {
+                buf.compact();
+                while (buf.position() < BYTES_ARISTA && ch.read(buf) >= 0) { }
+                buf.flip();
+                if (buf.remaining() < BYTES_ARISTA) return false;
+            }
+            u = buf.getInt(); v = buf.getInt(); w = buf.getInt();
+            return true;
+        }
+
+        public void close() throws IOException { ch.close(); }
+    }
+
+    // ======= Tubería completa =======
+    static Result run(Path entrada, int aristasPorRun, Path salidaMst) throws IOException {
+        Result res = new Result();
+        Path dir = Files.createTempDirectory("kruskal-ext");
+        List<Path> runs = new ArrayList<>();
+        try {
+            long t0 = System.nanoTime();
+            try (EdgeReader in = open(entrada)) {
+                res.n = in.vertices();
+                int[] u = new int[aristasPorRun], v = new int[aristasPorRun], w = new int[aristasPorRun];
+                long[] keys = new long[aristasPorRun];
+                int[] rec = new int[3];
+                int k = 0;
+                while (true) {
+                    boolean hay = in.next(rec);
+                    if (hay) {
+                        if (rec[0] < 0 || rec[0] >= res.n || rec[1] < 0 || rec[1] >= res.n)
+                            throw new IOException("Arista fuera de rango: " + rec[0] + " " + rec[1]);
+                        u[k] = rec[0]; v[k] = rec[1]; w[k] = rec[2];
+                        k++;
+                        res.m++;
+                    }
+                    if (k == aristasPorRun || (!hay && k > 0)) {
+                        runs.add(escribirRun(dir, runs.size(), u, v, w, keys, k));
+                        k = 0;
+                    }
+                    if (!hay) break;
+                }
+            }
+            long t1 = System.nanoTime();
+            res.runs = runs.size();
+            // si hay demasiados runs, mezclarlos por grupos hasta que quepan en una pasada
+            int siguiente = runs.size();
+            while (runs.size() > MAX_FAN_IN) {
+                List<Path> nuevos = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                    List<Path> grupo = runs.subList(i, Math.min(i + MAX_FAN_IN, runs.size()));
+                    Path destino = dir.resolve("run-" + (siguiente++) + ".bin");
+                    try (RunWriter out = new RunWriter(destino)) {
+                        mezclar(grupo, (a, b, c) -> { out.write(a, b, c); return true; });
+                    }
+                    for (Path p : grupo) Files.delete(p);
+                    nuevos.add(destino);
+                }
+                runs = nuevos;
+            }
+            // última mezcla: alimentar el union-find y parar con n-1 aristas aceptadas
+            DSU dsu = new DSU(res.n);
+            try (Writer out = (salidaMst == null) ? Writer.nullWriter()
+                    : Files.newBufferedWriter(salidaMst, StandardCharsets.UTF_8)) {
+                mezclar(runs, (a, b, c) -> {
+                    if (dsu.union(a, b)) {
+                        res.mstEdges++;
+                        res.totalWeight += c;
+                        if (salidaMst != null) out.write(a + " " + b + " " + c + "\n");
+                    }
+                    return res.mstEdges < res.n - 1;
+                });
+            }
+            long t2 = System.nanoTime();
+            res.segRuns = (t1 - t0) / 1e9;
+            res.segMezcla = (t2 - t1) / 1e9;
+            return res;
+        } finally {
+            for (Path p : runs) Files.deleteIfExists(p);
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+                for (Path p : ds) Files.deleteIfExists(p);
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static Path escribirRun(Path dir, int num, int[] u, int[] v, int[] w, long[] keys, int k) throws IOException {
+        for (int i = 0; i < k; i++) keys[i] = (((long) w[i]) << 32) | i;
+        Arrays.parallelSort(keys, 0, k);
+        Path p = dir.resolve("run-" + num + ".bin");
+        try (RunWriter out = new RunWriter(p)) {
+            for (int j = 0; j < k; j++) {
+                int i = (int) keys[j];
+                out.write(u[i], v[i], w[i]);
+            }
+        }
+        return p;
+    }
+
+    interface Consumidor {
+        /** Recibe una arista en orden de peso; false para detener la mezcla. */
+        boolean aceptar(int u, int v, int w) throws IOException;
+    }
+
+    // Mezcla k-vías: heap binario de índices de run ordenado por (peso, índice de run).
+    private static void mezclar(List<Path> runs, Consumidor destino) throws IOException {
+        int k = runs.size();
+        RunReader[] rs = new RunReader[k];
+        try {
+            int bytesPorRun = Math.max(BYTES_ARISTA * 1024, (64 << 20) / Math.max(k, 1));
+            int[] heap = new int[k];
+            int tam = 0;
+            for (int i = 0; i < k; i++) {
+                rs[i] = new RunReader(runs.get(i), Math.min(bytesPorRun, BUFFER));
+                if (rs[i].advance()) heap[tam++] = i;
+            }
+            for (int i = tam / 2 - 1; i >= 0; i--) hundir(heap, tam, i, rs);
+            while (tam > 0) {
+                RunReader r = rs[heap[0]];
+                if (!destino.aceptar(r.u, r.v, r.w)) return;
+                if (!r.advance()) heap[0] = heap[--tam];
+                hundir(heap, tam, 0, rs);
+            }
+        } finally {
+            for (RunReader r : rs) if (r != null) r.close();
+        }
+    }
+
+    private static void hundir(int[] heap, int tam, int i, RunReader[] rs) {
+        while (true) {
+            int menor = i, l = 2 * i + 1, d = l + 1;
+            if (l < tam && antes(heap[l], heap[menor], rs)) menor = l;
+            if (d < tam && antes(heap[d], heap[menor], rs)) menor = d;
+            if (menor == i) return;
+            int t = heap[i]; heap[i] = heap[menor]; heap[menor] = t;
+            i = menor;
+        }
+    }
+
+    private static boolean antes(int a, int b, RunReader[] rs) {
+        return rs[a].w != rs[b].w ? rs[a].w < rs[b].w : a < b;
+    }
+
+    // ======= Main =======
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Uso: java ExternalKruskal archivo [aristasPorRun=4000000] [salidaMst]");
+            return;
+        }
+        Path entrada = Paths.get(args[0]);
+        int porRun = args.length > 1 ? Integer.parseInt(args[1]) : 4_000_000;
+        Path salida = args.length > 2 ? Paths.get(args[2]) : null;
+
+        System.out.println("== Kruskal externo: " + entrada + " ==");
+        Result r = run(entrada, porRun, salida);
+        System.out.printf("Vértices: %d | Aristas leídas: %d | Runs: %d (de hasta %d aristas)%n", r.n, r.m, r.runs, porRun);
+        System.out.printf("Fase runs: %.2f s | Fase mezcla+DSU: %.2f s%n", r.segRuns, r.segMezcla);
+        System.out.printf("Throughput: %.0f aristas/s%n", r.aristasPorSegundo());
+        System.out.printf("MST: %d aristas, peso total = %d%s%n", r.mstEdges, r.totalWeight,
+                r.mstEdges < r.n - 1 ? " (el grafo no es conexo: bosque generador)" : "");
+        if (salida != null) System.out.println("Aristas del MST escritas en " + salida);
+    }
+}
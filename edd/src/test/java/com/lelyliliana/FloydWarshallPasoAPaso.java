@@ -1,5 +1,7 @@
 package com.lelyliliana;
  
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
@@ -15,41 +17,47 @@ import java.util.*;
  *  showNext (true/false)  -> si showSteps=true, permite ver también la matriz next en cada k
  *  Q
  *  Q líneas con u v para consultar ruta mínima
+ *
+ * Opcional: java FloydWarshallPasoAPaso traza.bin graba además cada paso en una traza
+ * binaria (ver FloydWarshallTrace) que se puede reproducir después.
+ * Con java FloydWarshallPasoAPaso grafo.csrg [traza.bin] N y la matriz salen del grafo CSR
+ * (ver CsrGraph, pesos enteros) y solo se piden las opciones de pasos y las consultas.
  */
 public class FloydWarshallPasoAPaso {
 
-    private static final long INF = (long) 1e15;
+    static final long INF = (long) 1e15;
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         Scanner sc = new Scanner(System.in);
 
         System.out.println("== Algoritmo de Floyd–Warshall (con pasos) ==");
-        System.out.print("Ingrese N (número de vértices): ");
-        int N = readInt(sc);
-
-        long[][] dist = new long[N][N];
-        int[][] next = new int[N][N];
-
-        System.out.println("Ingrese la matriz de adyacencia (" + N + " x " + N + "). Use 'INF' para infinito:");
-        for (int i = 0; i < N; i++) {
-            for (int j = 0; j < N; j++) {
-                dist[i][j] = parseWeight(sc.next());
+        boolean desdeCsr = args.length > 0 && args[0].endsWith(".csrg");
+        String archivoTraza = args.length > (desdeCsr ? 1 : 0) ? args[desdeCsr ? 1 : 0] : null;
+        int N;
+        long[][] dist;
+        if (desdeCsr) {
+            dist = CsrGraph.read(Paths.get(args[0])).toMatrix();
+            N = dist.length;
+            System.out.println("Grafo cargado de " + args[0] + ": N = " + N);
+        } else {
+            System.out.print("Ingrese N (número de vértices): ");
+            N = readInt(sc);
+            dist = new long[N][N];
+            System.out.println("Ingrese la matriz de adyacencia (" + N + " x " + N + "). Use 'INF' para infinito:");
+            for (int i = 0; i < N; i++) {
+                for (int j = 0; j < N; j++) {
+                    dist[i][j] = parseWeight(sc.next());
+                }
             }
         }
+        int[][] next = new int[N][N];
 
         System.out.print("¿Mostrar pasos (tablas por k)? (true/false): ");
         boolean showSteps = Boolean.parseBoolean(sc.next());
         System.out.print("Si muestra pasos, ¿también mostrar la matriz 'next'? (true/false): ");
         boolean showNext = Boolean.parseBoolean(sc.next());
 
-        // Inicialización de 'next'
-        for (int i = 0; i < N; i++) {
-            Arrays.fill(next[i], -1);
-            for (int j = 0; j < N; j++) {
-                if (i == j && dist[i][j] == 0) next[i][j] = j;
-                else if (dist[i][j] < INF)    next[i][j] = j;
-            }
-        }
+        initNext(dist, next);
 
         // Estado inicial
         if (showSteps) {
@@ -58,25 +66,11 @@ public class FloydWarshallPasoAPaso {
             if (showNext) printNextMatrix(next);
         }
 
-        // Floyd–Warshall con impresión por k
-        for (int k = 0; k < N; k++) {
-            for (int i = 0; i < N; i++) {
-                if (dist[i][k] == INF) continue;
-                for (int j = 0; j < N; j++) {
-                    if (dist[k][j] == INF) continue;
-                    long throughK = dist[i][k] + dist[k][j];
-                    if (throughK < dist[i][j]) {
-                        dist[i][j] = throughK;
-                        next[i][j] = next[i][k];
-                    }
-                }
-            }
-            if (showSteps) {
-                System.out.println("\n== Después de considerar vértice intermedio k = " + k + " ==");
-                printDistMatrix(dist);
-                if (showNext) printNextMatrix(next);
-            }
+        try (FloydWarshallTrace.Writer traza = archivoTraza != null
+                ? new FloydWarshallTrace.Writer(Paths.get(archivoTraza), dist, next) : null) {
+            floydWarshall(dist, next, showSteps, showNext, traza);
         }
+        if (archivoTraza != null) System.out.println("\nTraza guardada en " + archivoTraza);
 
         // Detección de ciclo negativo
         boolean hasNegCycle = false;
@@ -110,6 +104,50 @@ public class FloydWarshallPasoAPaso {
         System.out.println("\nFin.");
     }
 
+    // ==== Algoritmo ====
+    // Inicialización de 'next'
+    static void initNext(long[][] dist, int[][] next) {
+        int N = dist.length;
+        for (int i = 0; i < N; i++) {
+            Arrays.fill(next[i], -1);
+            for (int j = 0; j < N; j++) {
+                if (i == j && dist[i][j] == 0) next[i][j] = j;
+                else if (dist[i][j] < INF)    next[i][j] = j;
+            }
+        }
+    }
+
+    // Floyd–Warshall con impresión por k (el triple ciclo de libro, sobre long[][])
+    static void floydWarshall(long[][] dist, int[][] next, boolean showSteps, boolean showNext) {
+        floydWarshall(dist, next, showSteps, showNext, null);
+    }
+
+    // ... y si 'traza' no es null, graba cada k en ella
+    static void floydWarshall(long[][] dist, int[][] next, boolean showSteps, boolean showNext,
+                              FloydWarshallTrace.Writer traza) {
+        int N = dist.length;
+        for (int k = 0; k < N; k++) {
+            for (int i = 0; i < N; i++) {
+                if (dist[i][k] == INF) continue;
+                for (int j = 0; j < N; j++) {
+                    if (dist[k][j] == INF) continue;
+                    long throughK = dist[i][k] + dist[k][j];
+                    if (throughK < dist[i][j]) {
+                        dist[i][j] = throughK;
+                        next[i][j] = next[i][k];
+                        if (traza != null) traza.cambio(i, j);
+                    }
+                }
+            }
+            if (traza != null) traza.paso(k, dist, next);
+            if (showSteps) {
+                System.out.println("\n== Después de considerar vértice intermedio k = " + k + " ==");
+                printDistMatrix(dist);
+                if (showNext) printNextMatrix(next);
+            }
+        }
+    }
+
     // ==== Utilidades ====
     private static int readInt(Scanner sc) {
         while (true) {
@@ -119,13 +157,13 @@ public class FloydWarshallPasoAPaso {
         }
     }
 
-    private static long parseWeight(String token) {
+    static long parseWeight(String token) {
         if (token.equalsIgnoreCase("INF")) return INF;
         try { return Long.parseLong(token); }
         catch (NumberFormatException e) { return INF; }
     }
 
-    private static List<Integer> reconstructPath(int u, int v, int[][] next) {
+    static List<Integer> reconstructPath(int u, int v, int[][] next) {
         List<Integer> path = new ArrayList<>();
         if (next[u][v] == -1) return path;
         int cur = u; path.add(cur);
@@ -137,39 +175,74 @@ public class FloydWarshallPasoAPaso {
         return path;
     }
 
-    private static boolean touchesNegativeCycle(List<Integer> path, long[][] dist) {
+    static boolean touchesNegativeCycle(List<Integer> path, long[][] dist) {
         for (int w : path) if (dist[w][w] < 0) return true;
         return false;
     }
 
+    // Las tablas se arman en un único StringBuilder reutilizado, con el formateo de números
+    // hecho a mano, y se imprimen con una sola escritura (antes: un String.format y un
+    // print por celda). La salida es idéntica carácter por carácter.
+    private static final StringBuilder SALIDA = new StringBuilder();
+
     private static void printDistMatrix(long[][] dist) {
+        SALIDA.setLength(0);
+        formatDistMatrix(SALIDA, dist);
+        System.out.print(SALIDA);
+    }
+
+    private static void printNextMatrix(int[][] next) {
+        SALIDA.setLength(0);
+        formatNextMatrix(SALIDA, next);
+        System.out.print(SALIDA);
+    }
+
+    static void formatDistMatrix(StringBuilder sb, long[][] dist) {
         int n = dist.length, width = 10;
-        System.out.print(String.format("%" + width + "s", ""));
-        for (int j = 0; j < n; j++) System.out.print(String.format("%" + width + "s", j));
-        System.out.println();
+        pad(sb, width);
+        for (int j = 0; j < n; j++) appendNumber(sb, j, width);
+        sb.append(System.lineSeparator());
         for (int i = 0; i < n; i++) {
-            System.out.print(String.format("%" + width + "s", i));
+            appendNumber(sb, i, width);
             for (int j = 0; j < n; j++) {
-                if (dist[i][j] >= INF / 2) System.out.print(String.format("%" + width + "s", "INF"));
-                else                        System.out.print(String.format("%" + width + "d", dist[i][j]));
+                if (dist[i][j] >= INF / 2) { pad(sb, width - 3); sb.append("INF"); }
+                else                        appendNumber(sb, dist[i][j], width);
             }
-            System.out.println();
+            sb.append(System.lineSeparator());
         }
     }
 
-    private static void printNextMatrix(int[][] next) {
+    static void formatNextMatrix(StringBuilder sb, int[][] next) {
         int n = next.length, width = 6;
-        System.out.println("-- Matriz next (siguiente salto) --");
-        System.out.print(String.format("%" + width + "s", ""));
-        for (int j = 0; j < n; j++) System.out.print(String.format("%" + width + "s", j));
-        System.out.println();
+        sb.append("-- Matriz next (siguiente salto) --").append(System.lineSeparator());
+        pad(sb, width);
+        for (int j = 0; j < n; j++) appendNumber(sb, j, width);
+        sb.append(System.lineSeparator());
         for (int i = 0; i < n; i++) {
-            System.out.print(String.format("%" + width + "s", i));
+            appendNumber(sb, i, width);
             for (int j = 0; j < n; j++) {
-                String cell = (next[i][j] == -1) ? "-" : Integer.toString(next[i][j]);
-                System.out.print(String.format("%" + width + "s", cell));
+                if (next[i][j] == -1) { pad(sb, width - 1); sb.append('-'); }
+                else                   appendNumber(sb, next[i][j], width);
             }
-            System.out.println();
+            sb.append(System.lineSeparator());
+        }
+    }
+
+    private static void pad(StringBuilder sb, int espacios) {
+        for (int i = 0; i < espacios; i++) sb.append(' ');
+    }
+
+    // como String.format("%" + width + "d", x), sin crear objetos
+    static void appendNumber(StringBuilder sb, long x, int width) {
+        int digitos = 1;
+        for (long t = x; t <= -10 || t >= 10; t /= 10) digitos++;
+        pad(sb, width - digitos - (x < 0 ? 1 : 0));
+        if (x < 0) sb.append('-');
+        int ini = sb.length();
+        sb.setLength(ini + digitos);
+        for (int p = ini + digitos - 1; p >= ini; p--) {
+            sb.setCharAt(p, (char) ('0' + Math.abs(x % 10)));
+            x /= 10;
         }
     }
 }
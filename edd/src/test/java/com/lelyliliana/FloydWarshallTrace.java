@@ -0,0 +1,218 @@
+package com.lelyliliana;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Traza binaria de Floyd–Warshall paso a paso, para no imprimir tablas durante el cálculo.
+ *
+ * Formato (big-endian, escrito con un ByteBuffer directo y FileChannel):
+ *   int MAGIC, int versión, int n
+ *   estado inicial: n² long (dist) y n² int (next), por filas
+ *   por cada k: int k, int cantidad de celdas que cambiaron, y por cada una
+ *               int índice (i*n + j), long dist, int next        (delta contra el k anterior)
+ *   int -1 al final
+ * En Floyd–Warshall next solo cambia junto con dist, así que un delta por celda alcanza.
+ *
+ * Uso:
+ *   java FloydWarshallPasoAPaso traza.bin        graba la traza mientras calcula
+ *   java FloydWarshallTrace traza.bin [k] [next] reproduce la traza (todos los pasos o solo k)
+ *   java FloydWarshallTrace --bench [N=500]      mide el costo de trazar contra el algoritmo solo
+ */
+public class FloydWarshallTrace {
+
+    static final int MAGIC = 0x46575452; // "FWTR"
+    static final int VERSION = 1;
+
+    // ======= Escritura =======
+    // El algoritmo avisa cada celda que mejora con cambio(i, j); paso(k) graba solo esas,
+    // sin recorrer la matriz. Una celda puede mejorar varias veces en el mismo k: se anota
+    // una sola vez (marca por celda con el número de paso).
+    static final class Writer implements Closeable {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16);
+        private final int n;
+        private final int[] marca; // marca[p] == pasoActual: la celda ya está anotada
+        private int pasoActual = 1;
+        private int[] cambios = new int[1024];
+        private int cantidad;
+
+        /** Abre el archivo y graba el estado inicial. */
+        Writer(Path archivo, long[][] dist, int[][] next) throws IOException {
+            n = dist.length;
+            ch = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            marca = new int[n * n];
+            lugar(12);
+            buf.putInt(MAGIC).putInt(VERSION).putInt(n);
+            for (int i = 0; i < n; i++) for (int j = 0; j < n; j++) { lugar(8); buf.putLong(dist[i][j]); }
+            for (int i = 0; i < n; i++) for (int j = 0; j < n; j++) { lugar(4); buf.putInt(next[i][j]); }
+        }
+
+        /** La celda (i, j) mejoró durante el paso actual. */
+        void cambio(int i, int j) {
+            int p = i * n + j;
+            if (marca[p] == pasoActual) return;
+            marca[p] = pasoActual;
+            if (cantidad == cambios.length) cambios = Arrays.copyOf(cambios, 2 * cantidad);
+            cambios[cantidad++] = p;
+        }
+
+        /** Graba el paso k: los valores finales de las celdas anotadas. */
+        void paso(int k, long[][] dist, int[][] next) {
+            try {
+                lugar(8);
+                buf.putInt(k).putInt(cantidad);
+                for (int c = 0; c < cantidad; c++) {
+                    int p = cambios[c], i = p / n, j = p % n;
+                    lugar(16);
+                    buf.putInt(p).putLong(dist[i][j]).putInt(next[i][j]);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            cantidad = 0;
+            pasoActual++;
+        }
+
+        // asegura 'bytes' libres en el búfer, vaciándolo al archivo si hace falta
+        private void lugar(int bytes) throws IOException {
+            if (buf.remaining() >= bytes) return;
+            buf.flip();
+            while (buf.hasRemaining()) ch.write(buf);
+            buf.clear();
+        }
+
+        @Override public void close() throws IOException {
+            lugar(4);
+            buf.putInt(-1);
+            lugar(buf.capacity());
+            ch.close();
+        }
+    }
+
+    // ======= Lectura =======
+    static final class Reader implements Closeable {
+        private final DataInputStream in;
+        final int n;
+        final long[][] dist;
+        final int[][] next;
+        private int k = -1;
+
+        Reader(Path archivo) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo), 1 << 16));
+            if (in.readInt() != MAGIC) throw new IOException("No es una traza de Floyd–Warshall: " + archivo);
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Versión de traza no soportada: " + version);
+            n = in.readInt();
+            dist = new long[n][n];
+            next = new int[n][n];
+            for (int i = 0; i < n; i++) for (int j = 0; j < n; j++) dist[i][j] = in.readLong();
+            for (int i = 0; i < n; i++) for (int j = 0; j < n; j++) next[i][j] = in.readInt();
+        }
+
+        /** k del estado actual (-1 = inicial). */
+        int k() { return k; }
+
+        /** Aplica el siguiente paso; false si la traza terminó. */
+        boolean avanzar() throws IOException {
+            int paso = in.readInt();
+            if (paso < 0) return false;
+            k = paso;
+            int cambios = in.readInt();
+            for (int c = 0; c < cambios; c++) {
+                int p = in.readInt();
+                dist[p / n][p % n] = in.readLong();
+                next[p / n][p % n] = in.readInt();
+            }
+            return true;
+        }
+
+        @Override public void close() throws IOException { in.close(); }
+    }
+
+    // ======= Visor =======
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Uso: java FloydWarshallTrace traza.bin [k] [next] | --bench [N]");
+            return;
+        }
+        if (args[0].equals("--bench")) {
+            benchmark(args.length > 1 ? Integer.parseInt(args[1]) : 500);
+            return;
+        }
+        int soloK = args.length > 1 ? Integer.parseInt(args[1]) : Integer.MIN_VALUE;
+        boolean conNext = args.length > 2 && args[2].equalsIgnoreCase("next");
+        Visor salida = new Visor();
+        try (Reader r = new Reader(Paths.get(args[0]))) {
+            System.out.println("== Traza de Floyd–Warshall: n = " + r.n + " ==");
+            if (soloK == Integer.MIN_VALUE || soloK == -1) salida.mostrar("== Estado inicial (k = -1) ==", r, conNext);
+            while (r.avanzar()) {
+                if (soloK == Integer.MIN_VALUE || soloK == r.k())
+                    salida.mostrar("== Después de considerar vértice intermedio k = " + r.k() + " ==", r, conNext);
+            }
+        }
+    }
+
+    // salida de texto con un StringBuilder reutilizado y una escritura por tabla
+    private static final class Visor {
+        private final StringBuilder sb = new StringBuilder();
+
+        void mostrar(String titulo, Reader r, boolean conNext) {
+            sb.setLength(0);
+            sb.append(System.lineSeparator()).append(titulo).append(System.lineSeparator());
+            FloydWarshallPasoAPaso.formatDistMatrix(sb, r.dist);
+            if (conNext) FloydWarshallPasoAPaso.formatNextMatrix(sb, r.next);
+            System.out.print(sb);
+        }
+    }
+
+    // ======= Benchmark =======
+    // Compara: algoritmo solo / con traza binaria / con las tablas de showSteps a un archivo.
+    private static void benchmark(int n) throws IOException {
+        System.out.println("== Costo de trazar Floyd–Warshall, N = " + n + " ==");
+        Path tmp = Files.createTempFile("fw", ".trace");
+        try {
+            // mejor de 3 corridas (la primera también calienta el JIT)
+            double base = Double.MAX_VALUE, binaria = Double.MAX_VALUE;
+            for (int r = 0; r < 3; r++) {
+                base = Math.min(base, medir(n, null, false));
+                binaria = Math.min(binaria, medir(n, tmp, false));
+            }
+            long bytes = Files.size(tmp);
+            double texto = medir(n, tmp, true);
+            System.out.printf("%-34s %8.3f s%n", "solo el algoritmo", base);
+            System.out.printf("%-34s %8.3f s  (%.2fx, %.1f MB)%n", "traza binaria con deltas", binaria, binaria / base, bytes / 1e6);
+            System.out.printf("%-34s %8.3f s  (%.2fx, %.1f MB)%n", "showSteps a un archivo", texto, texto / base, Files.size(tmp) / 1e6);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static double medir(int n, Path archivo, boolean texto) throws IOException {
+        long[][] dist = BlockedFloydWarshall.grafoAleatorio(n, 8, new Random(n));
+        int[][] next = new int[n][n];
+        FloydWarshallPasoAPaso.initNext(dist, next);
+        long t0 = System.nanoTime();
+        if (archivo == null) {
+            FloydWarshallPasoAPaso.floydWarshall(dist, next, false, false);
+        } else if (!texto) {
+            try (Writer w = new Writer(archivo, dist, next)) {
+                FloydWarshallPasoAPaso.floydWarshall(dist, next, false, false, w);
+            }
+        } else {
+            // el mismo camino que showSteps = true, con System.out redirigido a un archivo
+            PrintStream original = System.out;
+            try (PrintStream out = new PrintStream(new BufferedOutputStream(Files.newOutputStream(archivo), 1 << 16), false)) {
+                System.setOut(out);
+                FloydWarshallPasoAPaso.floydWarshall(dist, next, true, false);
+            } finally {
+                System.setOut(original);
+            }
+        }
+        return (System.nanoTime() - t0) / 1e9;
+    }
+}
@@ -1,45 +1,39 @@
 package com.lelyliliana;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.PriorityQueue;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Scanner;
 import static java.lang.Math.*;
 
 public class GradoDijkstra {
 
     //parámetros ajustables 
-    private static final double PORC_UMBRAL_CREDITOS = 0.80; 
-    private static final int CREDITOS_POR_SEMESTRE = 18; 
-    private static final double COSTO_SUBIR_PROMEDIO = 1.0;
-    private static final double COSTO_LEVENTAR_SANCION = 0.5; 
+    static final double PORC_UMBRAL_CREDITOS = 0.80; 
+    static final int CREDITOS_POR_SEMESTRE = 18; 
+    static final double COSTO_SUBIR_PROMEDIO = 1.0;
+    static final double COSTO_LEVENTAR_SANCION = 0.5; 
 
     //bits requisitos 
-    private static final int CRED_OK = 1 << 0; //001 
-    private static final int PROM_OK = 1 << 1; //010
-    private static final int SAN_OK = 1 << 2; //100
-    private static final int OBJETIVO = CRED_OK | PROM_OK | SAN_OK; //111
-    
-    //Estructura para Dijkstra 
-    static class Edge { 
-        int to; 
-        double w; 
-        String accion; //describir la acción 
-        Edge(int to, double w, String accion) {
-            this.to = to; this.w=w; this.accion=accion; }
-    }
-
-    static class Node implements Comparable<Node> { 
-        int v; 
-        double dist; 
-        Node(int v, double dist) {
-            this.v=v; this.dist=dist;
-        }
-        public int compateTo(Node o) {
-            return Double.compare(this.dist,o.dist); 
+    static final int CRED_OK = 1 << 0; //001 
+    static final int PROM_OK = 1 << 1; //010
+    static final int SAN_OK = 1 << 2; //100
+    static final int OBJETIVO = CRED_OK | PROM_OK | SAN_OK; //111
+
+    //juego de parámetros del modelo; las tablas de planes se calculan por juego de parámetros.
+    //Los costos pueden ser negativos (p. ej. un plan de nivelación que devuelve créditos):
+    //la tabla se calcula entonces con BellmanFordEngine (ver PlanificadorRequisitos.tabla)
+    record Parametros(double porcUmbralCreditos, int creditosPorSemestre, double costoSubirPromedio,
+                      double costoLevantarSancion) {
+        Parametros {
+            if (!(porcUmbralCreditos > 0 && porcUmbralCreditos <= 1)) throw new IllegalArgumentException("El umbral de créditos debe estar en (0, 1]");
+            if (creditosPorSemestre < 1) throw new IllegalArgumentException("Los créditos por semestre deben ser positivos");
+            if (!Double.isFinite(costoSubirPromedio) || !Double.isFinite(costoLevantarSancion)) throw new IllegalArgumentException("Los costos deben ser números finitos");
         }
     }
+
+    static final Parametros POR_DEFECTO = new Parametros(PORC_UMBRAL_CREDITOS, CREDITOS_POR_SEMESTRE,
+            COSTO_SUBIR_PROMEDIO, COSTO_LEVENTAR_SANCION);
+    
 public static void main(String[] args) { 
     Scanner sc = new Scanner(System.in); 
 
@@ -57,7 +51,8 @@ public static void main(String[] args) {
     boolean sancionActiva = sc.nextBoolean();
 
     //1. Determinar el estado inicial (bitmask)
-    boolean cumpleCreditos = creditosAprobados >= (PORC_UMBRAL_CREDITOS*totalCreditos);
+    Parametros par = POR_DEFECTO;
+    boolean cumpleCreditos = creditosAprobados >= (par.porcUmbralCreditos()*totalCreditos);
     boolean cumplePromedio = promedio >=3.0; 
     boolean sinSanciones = !sancionActiva;
 
@@ -66,70 +61,10 @@ public static void main(String[] args) {
     if(cumplePromedio) estadoInicial |= PROM_OK; 
     if(sinSanciones) estadoInicial |=SAN_OK;
 
-    List<List<Edge>> g = new ArrayList<>();
-    for(int i = 0; i < 8; i++) g.add(new ArrayList<>());
-
-    for(int s = 0; s < 9; s++) { 
-
-        //créditos
-        if((s & CRED_OK) == 0) { 
-            double costo = costoCumplirCreditos(totalCreditos, creditosAprobados);
-            int t = s | CRED_OK;
-            String accion = describirAccionCreditos(totalCreditos, creditosAprobados);
-            g.get(s).add(new Edge(t, costo, accion));
-        }
-
-        //promedio
-        if((s & PROM_OK) == 0) { 
-            if (!cumplePromedio) { 
-                double costo = COSTO_SUBIR_PROMEDIO;
-                int t = s | PROM_OK; 
-                String accion = "Mejorar promedio a >=3.0 (Plan nivelación)";
-                g.get(s).add(new Edge(t, costo, accion));
-            } else {
-                g.get(s).add(new Edge(s | PROM_OK, 0.0, "Ya cumple promedio (acción costo 0)."));
-            }
-        }
-
-        //sanciones
-        if((s & SAN_OK) == 0) { 
-            if (!sinSanciones) { 
-                double costo = COSTO_LEVENTAR_SANCION; 
-                int t = s | SAN_OK;
-                String accion = "Levantar sanción";
-                g.get(s).add(new Edge(t, costo, accion));
-            } else { 
-                g.get(s).add(new Edge(s | SAN_OK, 0.0,"Sin sanciones"));
-            }
-        }
-    }
-
-    //Dijkstra 
-    double[] dist = new double[8];
-    int[] parent = new int[8];
-    String[] viaAccion = new String[8];
-    Arrays.fill(dist, Double.POSITIVE_INFINITY);
-    Arrays.fill(parent, -1);
-
-    PriorityQueue<Node> pq = new PriorityQueue<>();
-    dist[estadoInicial] = 0.0;
-    pq.add(new Node(estadoInicial,0.0));
-
-    while (!pq.isEmpty()) {
-        Node cur = pq.poll();
-        if(cur.dist != dist[cur.v]) continue;
-        if(cur.v == OBJETIVO) break;
-
-        for(Edge e : g.get(cur.v)) { 
-            if(dist[e.to] > dist[cur.v] + e.w) { 
-                dist[e.to] = dist[cur.v] + e.w;
-                parent[e.to] = cur.v; 
-                viaAccion[e.to] = e.accion;
-                pq.add(new Node(e.to, dist[e.to]));
-            }
-        }
-        
-    }
+    //Plan mínimo: consulta a la tabla de costo al objetivo (un Dijkstra inverso por juego de
+    //parámetros y semestres de créditos faltantes, guardado en caché)
+    int semestres = (int) costoCumplirCreditos(par, totalCreditos, creditosAprobados);
+    PlanificadorRequisitos.TablaPlanes tabla = tablaPlanes(par, semestres);
     //reportes
     System.out.println("Resultado de la verificación");
     if(estadoInicial == OBJETIVO) {
@@ -141,51 +76,69 @@ public static void main(String[] args) {
     reportarDetalleRequisitos(cumpleCreditos, cumplePromedio, sinSanciones);
     
     System.out.println("Plan mínimo Dijkstra");
-    if(dist[OBJETIVO]==Double.POSITIVE_INFINITY) { 
+    if(!tabla.posible(estadoInicial)) { 
         System.out.println("No fue posible construir un plan de los supuestos actuales.");
     } else {
-        List<Integer> ruta = reconstruirRuta(parent,OBJETIVO);
-        int prev = estadoInicial; 
-        for(int i = ruta.size()-1;i>=0; i--) {
-            int v = ruta.get(i);
-            if(v == estadoInicial) continue;
-            String accion = viaAccion[v];
-            double paso = dist[v] - dist[prev];
-            System.out.printf("- %s (costo: %.2f semestres)\n", accion, paso);
-            prev = v;          
+        for(long s = estadoInicial; s != OBJETIVO; s = tabla.siguiente(s)) {
+            int accion = tabla.accion(s);
+            //la descripción de créditos depende del estudiante (créditos faltantes)
+            String texto = tabla.modelo.cumple(accion) == CRED_OK
+                    ? describirAccionCreditos(par, totalCreditos, creditosAprobados) : tabla.modelo.descripcion(accion);
+            System.out.printf("- %s (costo: %.2f semestres)\n", texto, tabla.modelo.costo(accion));
         } 
-        System.out.printf("Costo total estimado: %.2f semestres.\n",dist[OBJETIVO]);
+        System.out.printf("Costo total estimado: %.2f semestres.\n",tabla.costo(estadoInicial));
     }
     
     }
 
     //Utilidades del modelo 
 
-private static List<Integer> reconstruirRuta(int[] parent, int objetivo) {
-    List<Integer> ruta = new ArrayList<>();
-    for(int v = objetivo; v != -1; v=parent[v]) ruta.add(v);
-    return ruta; 
+//Requisitos y acciones como datos: bit 0 créditos, bit 1 promedio, bit 2 sanciones
+//(mismo orden que CRED_OK, PROM_OK, SAN_OK). Cada acción cumple un requisito.
+//El único costo que depende del estudiante es el de créditos (semestres faltantes).
+static PlanificadorRequisitos modelo(Parametros par, int semestresCreditos) {
+    PlanificadorRequisitos p = new PlanificadorRequisitos("Créditos", "Promedio", "Sanciones");
+    p.agregarAccion("Aprobar créditos faltantes (" + semestresCreditos + " semestres)", semestresCreditos, CRED_OK);
+    p.agregarAccion("Mejorar promedio a >=3.0 (Plan nivelación)", par.costoSubirPromedio(), PROM_OK);
+    p.agregarAccion("Levantar sanción", par.costoLevantarSancion(), SAN_OK);
+    return p;
 }
+
+//Tablas de planes en caché, por semestres de créditos faltantes (mapa: solo ocupa las
+//cantidades que aparecieron, aunque alguna sea enorme). Si cambian los parámetros
+//(umbral, créditos por semestre o costos) se descartan todas.
+private static Parametros parametrosTablas;
+private static final Map<Integer, PlanificadorRequisitos.TablaPlanes> tablas = new HashMap<>();
+
+static synchronized PlanificadorRequisitos.TablaPlanes tablaPlanes(Parametros par, int semestresCreditos) {
+    if (semestresCreditos < 0) throw new IllegalArgumentException("Semestres inválidos: " + semestresCreditos);
+    if (!par.equals(parametrosTablas)) {
+        parametrosTablas = par;
+        tablas.clear();
+    }
+    return tablas.computeIfAbsent(semestresCreditos, s -> modelo(par, s).tabla());
+}
+
 private static void reportarDetalleRequisitos(boolean cred, boolean prom, boolean sanc) {
     System.out.println("Requisitos actuales: ");
     System.out.println(" - Créditos: " + (cred ? "Cumple" : "No cumple"));
     System.out.println(" - Promedio: " + (prom ? "Cumple" : "No Cumple (debe ser >= 3.0)"));
     System.out.println(" - Sanciones: " + (sanc ? "Sin sanciones" : "Tiene sanciones activas"));
 }
-private static double costoCumplirCreditos(int totalCred, int aprob) {
-    int minNecesarios = (int) ceil(PORC_UMBRAL_CREDITOS * totalCred);
+static double costoCumplirCreditos(Parametros par, int totalCred, int aprob) {
+    int minNecesarios = (int) ceil(par.porcUmbralCreditos() * totalCred);
     int faltantes = max(0, minNecesarios - aprob);
     if(faltantes == 0) return 0.0;
-    return ceil((double) faltantes / CREDITOS_POR_SEMESTRE);
+    return ceil((double) faltantes / par.creditosPorSemestre());
 }
-private static String describirAccionCreditos(int totalCred, int aprob) {
-    int minNecesarios = (int) ceil(PORC_UMBRAL_CREDITOS * totalCred);
+private static String describirAccionCreditos(Parametros par, int totalCred, int aprob) {
+    int minNecesarios = (int) ceil(par.porcUmbralCreditos() * totalCred);
     int faltantes = max(0, minNecesarios - aprob);
     if(faltantes <= 0) { 
         return "Créditos ya cumplen";
     }
     return "Aprobar créditos faltantes (" + faltantes + "cr) hasta alcanzar >= " 
-    + (int)(PORC_UMBRAL_CREDITOS*100) + "% del programa."; 
+    + (int)(par.porcUmbralCreditos()*100) + "% del programa."; 
 
 }
 
@@ -0,0 +1,362 @@
+package com.lelyliliana;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import com.lelyliliana.KruskalTerminalGame.Edge;
+import com.lelyliliana.KruskalTerminalGame.EdgeArrays;
+import com.lelyliliana.KruskalTerminalGame.Graph;
+
+/**
+ * Generador de grafos aleatorios reproducibles (misma semilla = mismo grafo, en cualquier
+ * máquina) para pruebas y benchmarks de los algoritmos de MST.
+ *
+ * Topologías:
+ *  - gnm(n, m): m aristas distintas elegidas al azar entre los n(n-1)/2 pares posibles.
+ *  - connected(n, extra): árbol aleatorio + 'extra' aristas distintas que no repiten las del
+ *    árbol (lo que usan randomConnectedGraph de KruskalTerminalGame y KruskalVisualGame).
+ *  - grid(filas, columnas): grilla con vecinos a derecha y abajo.
+ *  - powerLaw(n, k): Barabási–Albert, cada vértice nuevo se une a k vértices elegidos
+ *    con probabilidad proporcional a su grado.
+ *
+ * Sin HashSet<Long>: cada par {u, v} con u < v es un índice v(v-1)/2 + u en [0, n(n-1)/2),
+ * y se muestrea sin reemplazo sobre ese espacio:
+ *  - pocas aristas respecto al espacio: algoritmo de Floyd (o rechazo si hay pares
+ *    excluidos) con un conjunto de long primitivos de direccionamiento abierto;
+ *  - muchas aristas: selección secuencial (algoritmo S de Knuth), sin conjunto.
+ * El espacio de pares se parte en bloques con cuota proporcional (muestreo estratificado)
+ * que se generan en paralelo, cada uno con su propio SplittableRandom. La cantidad de
+ * bloques depende solo de n y m, no de los núcleos, así el resultado es reproducible.
+ *
+ * Los grafos se guardan en el formato binario de aristas de ExternalKruskal.
+ */
+public class GraphGenerator {
+
+    private static final int MUESTRAS_POR_BLOQUE = 1 << 16;
+    private static final int MAX_BLOQUES = 1024;
+
+    // ======= Topologías =======
+
+    static EdgeArrays gnm(int n, long m, int minW, int maxW, long semilla) {
+        validarPesos(minW, maxW);
+        long pares = pares(n);
+        if (m < 0 || m > pares)
+            throw new IllegalArgumentException("Con " + n + " vértices caben como mucho " + pares + " aristas (pedidas: " + m + ")");
+        EdgeArrays ea = new EdgeArrays(n, capacidad(m));
+        muestrearPares(ea, 0, pares, m, null, minW, maxW, new SplittableRandom(semilla));
+        return ea;
+    }
+
+    static EdgeArrays connected(int n, long extra, int minW, int maxW, long semilla) {
+        validarPesos(minW, maxW);
+        if (n < 1) throw new IllegalArgumentException("n debe ser >= 1");
+        long libres = pares(n) - (n - 1);
+        if (extra < 0 || extra > libres)
+            throw new IllegalArgumentException("Con " + n + " vértices caben como mucho " + libres
+                    + " aristas extra además del árbol (pedidas: " + extra + ")");
+        SplittableRandom rnd = new SplittableRandom(semilla);
+        EdgeArrays ea = new EdgeArrays(n, capacidad(n - 1 + extra));
+        // árbol aleatorio: el padre de v es un vértice anterior
+        LongOpenSet arbol = new LongOpenSet(n - 1);
+        for (int v = 1; v < n; v++) {
+            int u = rnd.nextInt(v);
+            ea.add(v, u, v, peso(rnd, minW, maxW));
+            arbol.add(indice(u, v));
+        }
+        muestrearPares(ea, n - 1, pares(n), extra, arbol, minW, maxW, rnd.split());
+        return ea;
+    }
+
+    static EdgeArrays grid(int filas, int columnas, int minW, int maxW, long semilla) {
+        validarPesos(minW, maxW);
+        if (filas < 1 || columnas < 1) throw new IllegalArgumentException("La grilla debe tener al menos 1x1");
+        long n = (long) filas * columnas;
+        long m = (long) filas * (columnas - 1) + (long) (filas - 1) * columnas;
+        if (n > Integer.MAX_VALUE) throw new IllegalArgumentException("Demasiados vértices: " + n);
+        SplittableRandom rnd = new SplittableRandom(semilla);
+        EdgeArrays ea = new EdgeArrays((int) n, capacidad(m));
+        for (int f = 0; f < filas; f++) {
+            for (int c = 0; c < columnas; c++) {
+                int x = f * columnas + c;
+                if (c + 1 < columnas) ea.add(ea.m + 1, x, x + 1, peso(rnd, minW, maxW));
+                if (f + 1 < filas) ea.add(ea.m + 1, x, x + columnas, peso(rnd, minW, maxW));
+            }
+        }
+        return ea;
+    }
+
+    static EdgeArrays powerLaw(int n, int k, int minW, int maxW, long semilla) {
+        validarPesos(minW, maxW);
+        if (k < 1 || n <= k) throw new IllegalArgumentException("Se necesita 1 <= k < n");
+        long m = (long) k * (k + 1) / 2 + (long) (n - k - 1) * k;
+        SplittableRandom rnd = new SplittableRandom(semilla);
+        EdgeArrays ea = new EdgeArrays(n, capacidad(m));
+        // extremos de todas las aristas: elegir una casilla al azar = elegir un vértice
+        // con probabilidad proporcional a su grado
+        int[] extremos = new int[capacidad(2 * m)];
+        int usados = 0;
+        for (int v = 1; v <= k; v++) { // núcleo inicial: clique de k+1 vértices
+            for (int u = 0; u < v; u++) {
+                ea.add(ea.m + 1, u, v, peso(rnd, minW, maxW));
+                extremos[usados++] = u;
+                extremos[usados++] = v;
+            }
+        }
+        int[] elegidos = new int[k];
+        for (int v = k + 1; v < n; v++) {
+            int c = 0;
+            while (c < k) {
+                int u = extremos[rnd.nextInt(usados)];
+                boolean repetido = false;
+                for (int i = 0; i < c; i++) if (elegidos[i] == u) { repetido = true; break; }
+                if (!repetido) elegidos[c++] = u;
+            }
+            for (int i = 0; i < k; i++) {
+                ea.add(ea.m + 1, elegidos[i], v, peso(rnd, minW, maxW));
+                extremos[usados++] = elegidos[i];
+                extremos[usados++] = v;
+            }
+        }
+        return ea;
+    }
+
+    /** Vista con objetos Edge (ids 1..m) para los programas interactivos. */
+    static Graph toGraph(EdgeArrays ea) {
+        Graph g = new Graph(ea.n);
+        for (int i = 0; i < ea.m; i++) g.edges.add(new Edge(i + 1, ea.u[i], ea.v[i], ea.w[i]));
+        return g;
+    }
+
+    // ======= Archivo binario (formato de ExternalKruskal) =======
+
+    static void write(EdgeArrays ea, Path archivo) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(archivo), 1 << 20))) {
+            out.writeInt(ExternalKruskal.MAGIC);
+            out.writeInt(ea.n);
+            out.writeLong(ea.m);
+            for (int i = 0; i < ea.m; i++) {
+                out.writeInt(ea.u[i]);
+                out.writeInt(ea.v[i]);
+                out.writeInt(ea.w[i]);
+            }
+        }
+    }
+
+    static EdgeArrays read(Path archivo) throws IOException {
+        try (ExternalKruskal.BinaryEdgeReader in = new ExternalKruskal.BinaryEdgeReader(archivo)) {
+            EdgeArrays ea = new EdgeArrays(in.vertices(), 1024);
+            int[] rec = new int[3];
+            while (in.next(rec)) ea.add(ea.m + 1, rec[0], rec[1], rec[2]);
+            return ea;
+        }
+    }
+
+    // ======= Muestreo sin reemplazo sobre el espacio de pares =======
+
+    static long pares(int n) { return (long) n * (n - 1) / 2; }
+
+    // par {u, v} (u < v) -> índice, y su inversa
+    static long indice(int u, int v) {
+        if (u > v) { int t = u; u = v; v = t; }
+        return (long) v * (v - 1) / 2 + u;
+    }
+
+    private static int mayorDe(long t) {
+        long v = (long) ((1 + Math.sqrt(1 + 8.0 * t)) / 2);
+        while (v * (v - 1) / 2 > t) v--;
+        while ((v + 1) * v / 2 <= t) v++;
+        return (int) v;
+    }
+
+    // Agrega a 'ea', a partir de la posición 'desde', 'cuantas' pares distintos de [0, total)
+    // que no estén en 'excluir'. Cada bloque escribe su propio tramo de los arreglos.
+    private static void muestrearPares(EdgeArrays ea, int desde, long total, long cuantas, LongOpenSet excluir,
+                                       int minW, int maxW, SplittableRandom rnd) {
+        int bloques = (int) Math.max(1, Math.min(MAX_BLOQUES, Math.min(cuantas / MUESTRAS_POR_BLOQUE, total)));
+        long[] lo = new long[bloques + 1];
+        for (int b = 0; b <= bloques; b++) lo[b] = fraccion(total, b, bloques);
+        long[] excluidosAntes = new long[bloques + 1]; // pares excluidos en [0, lo[b])
+        if (excluir != null) {
+            long[] ex = excluir.toArray();
+            Arrays.sort(ex);
+            for (int b = 0; b <= bloques; b++) {
+                int pos = Arrays.binarySearch(ex, lo[b]);
+                excluidosAntes[b] = pos >= 0 ? pos : -pos - 1;
+            }
+        }
+        long libres = total - excluidosAntes[bloques];
+        // cuota proporcional a los pares libres de cada bloque; suman exactamente 'cuantas'
+        long[] inicio = new long[bloques + 1];
+        for (int b = 0; b <= bloques; b++) inicio[b] = fraccion(cuantas, lo[b] - excluidosAntes[b], libres);
+        SplittableRandom[] rnds = new SplittableRandom[bloques];
+        for (int b = 0; b < bloques; b++) rnds[b] = rnd.split();
+
+        ea.m = desde;
+        IntStream s = IntStream.range(0, bloques);
+        (bloques > 1 ? s.parallel() : s).forEach(b -> {
+            long ini = lo[b], fin = lo[b + 1];
+            int pos = desde + (int) inicio[b];
+            int cuota = (int) (inicio[b + 1] - inicio[b]);
+            long libresBloque = (fin - ini) - (excluidosAntes[b + 1] - excluidosAntes[b]);
+            SplittableRandom r = rnds[b];
+            if (cuota == 0) return;
+            if ((long) cuota * 2 > libresBloque) {
+                // denso: recorrer el bloque eligiendo cada par libre con probabilidad cuota/restantes
+                long restantes = libresBloque;
+                int faltan = cuota;
+                for (long t = ini; faltan > 0; t++) {
+                    if (excluir != null && excluir.contains(t)) continue;
+                    if (r.nextLong(restantes) < faltan) {
+                        poner(ea, pos++, t, r, minW, maxW);
+                        faltan--;
+                    }
+                    restantes--;
+                }
+            } else if (excluir == null) {
+                // Floyd: j recorre los últimos 'cuota' índices; si el sorteo ya salió, se toma j
+                LongOpenSet vistos = new LongOpenSet(cuota);
+                long tam = fin - ini;
+                for (long j = tam - cuota; j < tam; j++) {
+                    long t = r.nextLong(j + 1);
+                    if (!vistos.add(t)) { t = j; vistos.add(j); }
+                    poner(ea, pos++, ini + t, r, minW, maxW);
+                }
+            } else {
+                // disperso con pares prohibidos: rechazo (menos de 2 sorteos por arista en promedio)
+                LongOpenSet vistos = new LongOpenSet(cuota);
+                int hechas = 0;
+                while (hechas < cuota) {
+                    long t = ini + r.nextLong(fin - ini);
+                    if (excluir.contains(t) || !vistos.add(t)) continue;
+                    poner(ea, pos++, t, r, minW, maxW);
+                    hechas++;
+                }
+            }
+        });
+        ea.m = desde + (int) cuantas;
+    }
+
+    private static void poner(EdgeArrays ea, int i, long t, SplittableRandom r, int minW, int maxW) {
+        int v = mayorDe(t);
+        ea.id[i] = i + 1;
+        ea.u[i] = (int) (t - (long) v * (v - 1) / 2);
+        ea.v[i] = v;
+        ea.w[i] = peso(r, minW, maxW);
+    }
+
+    // floor(a * b / c) sin desbordar
+    private static long fraccion(long a, long b, long c) {
+        if (c == 0) return 0;
+        return BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)).divide(BigInteger.valueOf(c)).longValueExact();
+    }
+
+    private static int peso(SplittableRandom rnd, int minW, int maxW) {
+        return (int) (minW + rnd.nextLong((long) maxW - minW + 1));
+    }
+
+    private static void validarPesos(int minW, int maxW) {
+        if (minW > maxW) throw new IllegalArgumentException("minW no puede ser mayor que maxW");
+    }
+
+    private static int capacidad(long m) {
+        if (m > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Demasiadas aristas para EdgeArrays: " + m);
+        return (int) m;
+    }
+
+    // ======= Conjunto de long >= 0 con direccionamiento abierto =======
+    // Sondeo lineal sobre un long[] (vacío = -1), factor de carga <= 1/2. Sin boxing.
+    static class LongOpenSet {
+        private long[] t;
+        private int tam, mascara;
+
+        LongOpenSet(long esperados) {
+            int cap = Integer.highestOneBit((int) Math.min(1 << 30, Math.max(8, 2 * esperados)) - 1) << 1;
+            t = new long[cap];
+            Arrays.fill(t, -1);
+            mascara = cap - 1;
+        }
+
+        boolean add(long x) {
+            if (2 * (tam + 1) > t.length) agrandar();
+            int i = casilla(x);
+            while (t[i] != -1) {
+                if (t[i] == x) return false;
+                i = (i + 1) & mascara;
+            }
+            t[i] = x;
+            tam++;
+            return true;
+        }
+
+        boolean contains(long x) {
+            int i = casilla(x);
+            while (t[i] != -1) {
+                if (t[i] == x) return true;
+                i = (i + 1) & mascara;
+            }
+            return false;
+        }
+
+        int size() { return tam; }
+
+        long[] toArray() {
+            long[] r = new long[tam];
+            int k = 0;
+            for (long x : t) if (x != -1) r[k++] = x;
+            return r;
+        }
+
+        private int casilla(long x) {
+            long h = x * 0x9E3779B97F4A7C15L; // Fibonacci hashing
+            return (int) (h ^ (h >>> 32)) & mascara;
+        }
+
+        private void agrandar() {
+            long[] viejo = t;
+            t = new long[viejo.length * 2];
+            Arrays.fill(t, -1);
+            mascara = t.length - 1;
+            tam = 0;
+            for (long x : viejo) if (x != -1) add(x);
+        }
+    }
+
+    // ======= Main =======
+    // Uso: java GraphGenerator gnm n m salida.bin [semilla]
+    //      java GraphGenerator conexo n extra salida.bin [semilla]
+    //      java GraphGenerator grilla filas columnas salida.bin [semilla]
+    //      java GraphGenerator potencia n k salida.bin [semilla]
+    // Si la salida termina en .csrg se escribe el grafo CSR (ver CsrGraph) en vez de las aristas.
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.out.println("Uso: java GraphGenerator (gnm n m | conexo n extra | grilla filas columnas | potencia n k) salida.bin [semilla]");
+            return;
+        }
+        int a = Integer.parseInt(args[1]);
+        long b = Long.parseLong(args[2]);
+        Path salida = Paths.get(args[3]);
+        long semilla = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        int maxW = 1_000_000;
+
+        long t0 = System.nanoTime();
+        EdgeArrays ea;
+        switch (args[0]) {
+            case "gnm": ea = gnm(a, b, 1, maxW, semilla); break;
+            case "conexo": ea = connected(a, b, 1, maxW, semilla); break;
+            case "grilla": ea = grid(a, (int) b, 1, maxW, semilla); break;
+            case "potencia": ea = powerLaw(a, (int) b, 1, maxW, semilla); break;
+            default: throw new IllegalArgumentException("Topología desconocida: " + args[0]);
+        }
+        double segGen = (System.nanoTime() - t0) / 1e9;
+        long t1 = System.nanoTime();
+        if (salida.toString().endsWith(".csrg")) CsrGraph.fromUndirected(ea).write(salida);
+        else write(ea, salida);
+        double segEsc = (System.nanoTime() - t1) / 1e9;
+        System.out.printf("Grafo %s: n = %d, m = %d%n", args[0], ea.n, ea.m);
+        System.out.printf("Generado en %.2f s (%.0f aristas/s), escrito en %.2f s a %s%n",
+                segGen, ea.m / segGen, segEsc, salida);
+    }
+}
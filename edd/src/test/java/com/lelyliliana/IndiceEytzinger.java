@@ -0,0 +1,113 @@
+package com.lelyliliana;
+
+import java.util.*;
+
+/**
+ * Índice de búsqueda estático (solo lectura) en disposición de Eytzinger.
+ *
+ * Los valores ordenados se guardan en un int[] siguiendo el recorrido por niveles (BFS)
+ * de un árbol binario completo: la raíz en a[1] y los hijos de a[k] en a[2k] y a[2k+1].
+ * Ventajas frente a seguir punteros en ArbolAVL / ArbolBinarioBusqueda:
+ *  - No hay nodos ni referencias: todo es un arreglo contiguo de enteros.
+ *  - Los primeros niveles (los más visitados) quedan juntos en pocas líneas de caché.
+ *  - La búsqueda no tiene ramas dependientes de los datos (k = 2k + (a[k] < x)),
+ *    así el procesador no falla predicciones y puede adelantar las lecturas.
+ *
+ * Se obtiene con congelar() desde cualquiera de los dos árboles. Es una foto: si el
+ * árbol cambia, hay que volver a congelarlo (O(n)), por ejemplo después de cada lote
+ * de escrituras. El main compara el rendimiento de las búsquedas.
+ */
+public class IndiceEytzinger {
+
+    private final int[] a; // a[1..n]; a[0] no se usa
+    private final int n;
+
+    /** Construye el índice desde valores en orden estrictamente creciente. */
+    IndiceEytzinger(int[] ordenados) {
+        for (int i = 1; i < ordenados.length; i++) {
+            if (ordenados[i - 1] >= ordenados[i])
+                throw new IllegalArgumentException("Los valores deben ser crecientes y sin duplicados (posición " + i + ")");
+        }
+        this.n = ordenados.length;
+        this.a = new int[n + 1];
+        llenar(ordenados, 0, 1);
+    }
+
+    // recorrido inorden del árbol implícito: asigna los valores ordenados a las casillas
+    private int llenar(int[] ordenados, int i, int k) {
+        if (k <= n) {
+            i = llenar(ordenados, i, 2 * k);
+            a[k] = ordenados[i++];
+            i = llenar(ordenados, i, 2 * k + 1);
+        }
+        return i;
+    }
+
+    public int cantidad() { return n; }
+
+    public boolean contiene(int x) {
+        int k = lowerBound(x);
+        return k != 0 && a[k] == x;
+    }
+
+    /**
+     * Casilla (1..n) del menor valor >= x, o 0 si todos son menores.
+     * El valor se lee con valorEn(k).
+     */
+    public int lowerBound(int x) {
+        int k = 1;
+        while (k <= n) k = 2 * k + (a[k] < x ? 1 : 0);
+        // subir mientras veníamos de un hijo derecho: quitar los 1 finales y uno más
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+
+    public int valorEn(int k) {
+        if (k < 1 || k > n) throw new IllegalArgumentException("Casilla fuera de rango: " + k);
+        return a[k];
+    }
+
+    // ======== BENCHMARK ========
+    // Uso: java IndiceEytzinger [n=1000000] [consultas=5000000]
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int q = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        Random rnd = new Random(42);
+
+        ArbolAVLMenu.ArbolAVL avl = new ArbolAVLMenu.ArbolAVL();
+        ArbolBinarioMenu.ArbolBinarioBusqueda bst = new ArbolBinarioMenu.ArbolBinarioBusqueda();
+        while (avl.cantidadNodos() < n) {
+            int v = rnd.nextInt(4 * n);
+            if (avl.insertar(v)) bst.insertar(v);
+        }
+        int[] consultas = new int[q];
+        for (int i = 0; i < q; i++) consultas[i] = rnd.nextInt(4 * n);
+
+        long t0 = System.nanoTime();
+        IndiceEytzinger idxAvl = avl.congelar();
+        long t1 = System.nanoTime();
+        IndiceEytzinger idxBst = bst.congelar();
+        long t2 = System.nanoTime();
+        System.out.println("== Búsquedas: árbol enlazado vs índice Eytzinger ==");
+        System.out.printf("n = %d, consultas = %d%n", n, q);
+        System.out.printf("congelar ArbolAVL: %.1f ms | congelar BST: %.1f ms%n", (t1 - t0) / 1e6, (t2 - t1) / 1e6);
+
+        for (int ronda = 1; ronda <= 3; ronda++) { // varias rondas para que el JIT se estabilice
+            System.out.println("-- Ronda " + ronda + " --");
+            long s = System.nanoTime(), c = 0;
+            for (int x : consultas) if (avl.contiene(x)) c++;
+            reportar("ArbolAVL.contiene", s, q, c);
+            s = System.nanoTime(); c = 0;
+            for (int x : consultas) if (bst.contiene(x)) c++;
+            reportar("ArbolBinarioBusqueda.contiene", s, q, c);
+            s = System.nanoTime(); c = 0;
+            for (int x : consultas) if (idxAvl.contiene(x)) c++;
+            reportar("IndiceEytzinger.contiene", s, q, c);
+        }
+        if (!Arrays.equals(idxAvl.a, idxBst.a)) throw new IllegalStateException("Los índices no coinciden");
+    }
+
+    private static void reportar(String nombre, long inicio, int q, long encontrados) {
+        double seg = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("%-30s %8.2f Mconsultas/s (encontrados: %d)%n", nombre, q / seg / 1e6, encontrados);
+    }
+}
@@ -1,5 +1,7 @@
 package com.lelyliliana;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -29,11 +31,30 @@ public class KruskalTerminalGame {
 
     static class DSU {
         int[] p, r;
+        // Seguimiento incremental de componentes (válido en las raíces):
+        //  - sz: tamaño de cada componente
+        //  - nextMember: lista circular de miembros; unir dos listas = intercambiar dos punteros
+        //  - nextRoot/prevRoot: lista doblemente enlazada de raíces vivas
+        int[] sz, nextMember, nextRoot, prevRoot;
+        int firstRoot, count;
         DSU(int n) {
             p = new int[n]; r = new int[n];
-            for (int i=0;i<n;i++){p[i]=i;r[i]=0;}
+            sz = new int[n]; nextMember = new int[n]; nextRoot = new int[n]; prevRoot = new int[n];
+            for (int i=0;i<n;i++){
+                p[i]=i; r[i]=0;
+                sz[i]=1; nextMember[i]=i;
+                nextRoot[i]=(i+1<n)?i+1:-1; prevRoot[i]=i-1;
+            }
+            firstRoot = (n>0)?0:-1;
+            count = n;
+        }
+        // búsqueda iterativa con "path halving": cada nodo del camino pasa a apuntar a su
+        // abuelo; misma complejidad que la compresión recursiva, pero sin riesgo de
+        // desbordar la pila en cadenas largas
+        int find(int x){
+            while(p[x]!=x){ p[x]=p[p[x]]; x=p[x]; }
+            return x;
         }
-        int find(int x){ return p[x]==x?x:(p[x]=find(p[x])); }
         boolean same(int a,int b){ return find(a)==find(b); }
         boolean union(int a,int b){
             a=find(a); b=find(b);
@@ -41,13 +62,35 @@ public class KruskalTerminalGame {
             if(r[a]<r[b]){int t=a;a=b;b=t;}
             p[b]=a;
             if(r[a]==r[b]) r[a]++;
+            // O(1): sumar tamaños, empalmar las listas circulares y sacar 'b' de las raíces
+            sz[a]+=sz[b];
+            int t=nextMember[a]; nextMember[a]=nextMember[b]; nextMember[b]=t;
+            if(prevRoot[b]>=0) nextRoot[prevRoot[b]]=nextRoot[b]; else firstRoot=nextRoot[b];
+            if(nextRoot[b]>=0) prevRoot[nextRoot[b]]=prevRoot[b];
+            count--;
             return true;
         }
+        int count(){ return count; }
+        int size(int x){ return sz[find(x)]; }
+        int[] roots(){
+            int[] out=new int[count];
+            for(int c=firstRoot,i=0;c>=0;c=nextRoot[c]) out[i++]=c;
+            return out;
+        }
+        int[] members(int x){
+            x=find(x);
+            int[] out=new int[sz[x]];
+            int i=0, y=x;
+            do { out[i++]=y; y=nextMember[y]; } while(y!=x);
+            return out;
+        }
+        // costo proporcional a la salida (no recorre los n vértices con find)
         Map<Integer,List<Integer>> components(){
             Map<Integer,List<Integer>> m=new HashMap<>();
-            for(int i=0;i<p.length;i++){
-                int f=find(i);
-                m.computeIfAbsent(f,k->new ArrayList<>()).add(i);
+            for(int c=firstRoot;c>=0;c=nextRoot[c]){
+                List<Integer> ls=new ArrayList<>(sz[c]);
+                for(int y:members(c)) ls.add(y);
+                m.put(c,ls);
             }
             return m;
         }
@@ -59,44 +102,59 @@ public class KruskalTerminalGame {
         Graph(int n){ this.n=n; }
     }
 
-    // ======= Utilidades =======
-    static Graph randomConnectedGraph(int n, int extraEdges, int minW, int maxW, Random rnd){
-        Graph g = new Graph(n);
-        int eid=1;
+    // Aristas como "struct of arrays": cuatro int[] en lugar de un objeto Edge por arista.
+    // Para grafos enormes ahorra los encabezados de objeto y las referencias, y permite
+    // ordenar con claves primitivas en lugar de comparar objetos.
+    static class EdgeArrays {
+        int n, m;
+        int[] id, u, v, w;
 
-        // Primero: un árbol aleatorio para garantizar conectividad
-        for(int v=1; v<n; v++){
-            int u = rnd.nextInt(v);
-            int w = rnd.nextInt(maxW-minW+1)+minW;
-            g.edges.add(new Edge(eid++, u, v, w));
+        EdgeArrays(int n, int capacity){
+            this.n=n;
+            capacity=Math.max(capacity,1);
+            id=new int[capacity]; u=new int[capacity]; v=new int[capacity]; w=new int[capacity];
         }
-        // Agregar aristas extra evitando duplicados y lazos
-        Set<Long> seen = new HashSet<>();
-        for (Edge e : g.edges) {
-            long key = key(e.u, e.v);
-            seen.add(key);
+
+        static EdgeArrays from(Graph g){
+            EdgeArrays ea = new EdgeArrays(g.n, g.edges.size());
+            for (Edge e : g.edges) ea.add(e.id, e.u, e.v, e.w);
+            return ea;
         }
-        int attempts = 0;
-        while (extraEdges>0 && attempts<1000){
-            int u = rnd.nextInt(n), v = rnd.nextInt(n);
-            if(u==v) { attempts++; continue; }
-            long k = key(u,v);
-            if(seen.contains(k)) { attempts++; continue; }
-            seen.add(k);
-            int w = rnd.nextInt(maxW-minW+1)+minW;
-            g.edges.add(new Edge(eid++, Math.min(u,v), Math.max(u,v), w));
-            extraEdges--;
+
+        void add(int eid, int a, int b, int weight){
+            if (m==u.length){
+                int cap = (int)Math.min(Integer.MAX_VALUE-8, 2L*m);
+                if (cap==m) throw new IllegalStateException("Demasiadas aristas: "+m);
+                id=Arrays.copyOf(id,cap); u=Arrays.copyOf(u,cap); v=Arrays.copyOf(v,cap); w=Arrays.copyOf(w,cap);
+            }
+            id[m]=eid; u[m]=a; v[m]=b; w[m]=weight;
+            m++;
+        }
+
+        Edge edge(int i){ return new Edge(id[i], u[i], v[i], w[i]); }
+
+        // Clave empaquetada: peso en los 32 bits altos y posición en los bajos.
+        // Ordenar estos long equivale a ordenar por (peso, posición).
+        long sortKey(int i){ return (((long)w[i])<<32) | i; }
+
+        long[] sortedKeys(){
+            long[] keys = new long[m];
+            for (int i=0;i<m;i++) keys[i]=sortKey(i);
+            Arrays.parallelSort(keys);
+            return keys;
         }
-        return g;
     }
-    static long key(int a,int b){
-        int x=Math.min(a,b), y=Math.max(a,b);
-        return (((long)x)<<32) | (long)y;
+
+    // ======= Utilidades =======
+    // Árbol aleatorio + extraEdges aristas distintas (sin lazos ni repetidas).
+    // Si no caben tantas aristas lanza IllegalArgumentException en lugar de devolver menos.
+    static Graph randomConnectedGraph(int n, int extraEdges, int minW, int maxW, Random rnd){
+        return GraphGenerator.toGraph(GraphGenerator.connected(n, extraEdges, minW, maxW, rnd.nextLong()));
     }
 
     static class KruskalResult {
         List<Edge> mst = new ArrayList<>();
-        int totalWeight = 0;
+        long totalWeight = 0;
         List<String> log = new ArrayList<>();
     }
 
@@ -120,6 +178,24 @@ public class KruskalTerminalGame {
         return res;
     }
 
+    // Kruskal directamente sobre EdgeArrays: orden primitivo en paralelo y sin bitácora
+    // (con millones de aristas el log de texto no cabría en memoria). Empates de peso se
+    // resuelven por posición de la arista; el peso total del MST es el mismo.
+    static KruskalResult runKruskal(EdgeArrays ea){
+        KruskalResult res = new KruskalResult();
+        DSU dsu = new DSU(ea.n);
+        long[] keys = ea.sortedKeys();
+        for (long k : keys){
+            int i = (int) k;
+            if (dsu.union(ea.u[i], ea.v[i])){
+                res.mst.add(ea.edge(i));
+                res.totalWeight += ea.w[i];
+                if (res.mst.size()==ea.n-1) break;
+            }
+        }
+        return res;
+    }
+
     // ======= Juego interactivo =======
     static void play(Scanner sc, Graph g){
         System.out.println("=== JUEGO: Kruskal en la terminal ===");
@@ -142,11 +218,16 @@ public class KruskalTerminalGame {
         for (Edge e : sorted){
             if (chosen.size()==g.n-1) break;
 
-            // Mostrar componentes actuales
-            Map<Integer,List<Integer>> comps = dsu.components();
-            String compStr = comps.values().stream()
-                    .sorted(Comparator.comparingInt(a->a.get(0)))
-                    .map(ls -> ls.stream().map(String::valueOf).collect(Collectors.joining(",")))
+            // Mostrar componentes actuales (el DSU ya mantiene las listas de miembros)
+            List<int[]> comps = new ArrayList<>(dsu.count());
+            for (int root : dsu.roots()){
+                int[] ms = dsu.members(root);
+                Arrays.sort(ms);
+                comps.add(ms);
+            }
+            comps.sort(Comparator.comparingInt(a->a[0]));
+            String compStr = comps.stream()
+                    .map(ms -> Arrays.stream(ms).mapToObj(String::valueOf).collect(Collectors.joining(",")))
                     .collect(Collectors.joining(" | "));
             System.out.println("Componentes actuales: ["+compStr+"]");
 
@@ -219,6 +300,7 @@ public class KruskalTerminalGame {
         System.out.println("1) Jugar con grafo aleatorio");
         System.out.println("2) Demo automática (paso a paso)");
         System.out.println("3) Ingresar grafo manualmente");
+        System.out.println("4) Cargar grafo desde archivo (.csrg, aristas binarias o texto 'n m' + 'u v w')");
         System.out.println("0) Salir");
         System.out.print("Elige una opción: ");
 
@@ -244,8 +326,20 @@ public class KruskalTerminalGame {
                 demo(g);
                 break;
             }
-            case "3": {
-                Graph g = readGraph(sc);
+            case "3":
+            case "4": {
+                Graph g;
+                if (op.equals("3")) g = readGraph(sc);
+                else {
+                    System.out.print("Ruta del archivo: ");
+                    try {
+                        g = GraphGenerator.toGraph(CsrGraph.convertir(Paths.get(sc.nextLine().trim()), false).toUndirectedEdges());
+                    } catch (IOException | RuntimeException e) {
+                        System.out.println("No se pudo cargar el grafo: " + e.getMessage());
+                        break;
+                    }
+                    System.out.printf("Grafo con %d vértices y %d aristas%n", g.n, g.edges.size());
+                }
                 System.out.println();
                 System.out.println("1) Jugar");
                 System.out.println("2) Demo automática");
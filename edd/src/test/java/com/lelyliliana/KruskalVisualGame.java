@@ -1,13 +1,15 @@
 package com.lelyliliana;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Scanner;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 public class KruskalVisualGame {
@@ -20,7 +22,7 @@ public class KruskalVisualGame {
         this.v=v; 
         this.w=w; 
     }
-    public int CompareTo(Edge o) { return Integer.compare(this.w, o.w); }
+    @Override public int compareTo(Edge o) { return Integer.compare(this.w, o.w); }
     @Override public String toString() { 
         return String.format("#%02d (%d - %d) w=%d", id, u, v, w); 
     }
@@ -28,8 +30,20 @@ public class KruskalVisualGame {
 
     static class DSU { 
         int[] p, r; 
+        // componentes incrementales: tamaño, lista circular de miembros y lista de raíces
+        int[] sz, nextMember, nextRoot, prevRoot;
+        int firstRoot, count;
         DSU(int n) { p=new int [n]; r=new int[n];
-        for(int i=0; i<n;i++) p[i]=i; }
+        sz=new int[n]; nextMember=new int[n]; nextRoot=new int[n]; prevRoot=new int[n];
+        for(int i=0; i<n;i++) { 
+            p[i]=i; 
+            sz[i]=1; 
+            nextMember[i]=i;
+            nextRoot[i]=(i+1<n)?i+1:-1; 
+            prevRoot[i]=i-1;
+        }
+        firstRoot=(n>0)?0:-1;
+        count=n; }
         int find(int x) { 
             return p[x]==x?x:(p[x]=find(p[x])); }
         boolean same(int a, int b) {
@@ -42,42 +56,44 @@ public class KruskalVisualGame {
             if(r[a]<r[b]) {int t=a;a=b;b=t; }
             p[b]=a; 
             if(r[a]==r[b]) r[a]++;
+            sz[a]+=sz[b];
+            int t=nextMember[a]; nextMember[a]=nextMember[b]; nextMember[b]=t;
+            if(prevRoot[b]>=0) nextRoot[prevRoot[b]]=nextRoot[b]; else firstRoot=nextRoot[b];
+            if(nextRoot[b]>=0) prevRoot[nextRoot[b]]=prevRoot[b];
+            count--;
             return true;
         }
+        int[] members(int x) { 
+            x=find(x);
+            int[] out=new int[sz[x]];
+            int i=0, y=x;
+            do { out[i++]=y; y=nextMember[y]; } while(y!=x);
+            return out;
+        }
         Map<Integer,List<Integer>> components() { 
             Map<Integer,List<Integer>> m=new HashMap<>();
-            for(int i=0; i<p.length;i++) { 
-                int f=find(i);
-                m.computeIfAbsent(f,k -> new ArrayList<>()).add(i);
+            for(int c=firstRoot; c>=0; c=nextRoot[c]) { 
+                List<Integer> ls=new ArrayList<>(sz[c]);
+                for(int y : members(c)) ls.add(y);
+                m.put(c,ls);
             }
             return m;
         }
     }
     static Graph randomConnectedGraph(int n, int extra, int minW, int maxW, Random rnd){
-        Graph g = new Graph(n); 
-        int eid=1; 
+        return fromEdgeArrays(GraphGenerator.connected(n, extra, minW, maxW, rnd.nextLong()));
+    }
 
-        for(int v=1;v<n;v++) {
-            int u=rnd.nextInt(v);
-            int w = rnd.nextInt(maxW-minW+1)+minW;
-            g.edges.add(new Edge(eid++, u, v, w));
-        }
-        Set<Long> seen=new HashSet<>();
-        for(Edge e:g.edges) seen.add(key(e.u,e.v));
-        while (extra>0) {
-            int u =rnd.nextInt(n),v=rnd.nextInt(n);
-            if(u==v)continue;
-            long k=key(u,v);
-            if(seen.contains(k))continue;
-            seen.add(k);
-            int w=rnd.nextInt(maxW-minW+1)+minW;
-            g.edges.add(new Edge(eid++, Math.min(u, w), Math.max(u,v),w));
-            extra--;
-        }
-        return g; 
+    static Graph fromEdgeArrays(KruskalTerminalGame.EdgeArrays ea){
+        Graph g = new Graph(ea.n);
+        for (int i=0;i<ea.m;i++) g.edges.add(new Edge(i+1, ea.u[i], ea.v[i], ea.w[i]));
+        return g;
     }
-    static Long key(int a, int b) {
-        return (((long)Math.min(a, b))<<32) | Math.max(a,b);
+
+    // Grafo desde archivo, igual que la opción 4 de KruskalTerminalGame: .csrg (un CSR
+    // dirigido se simetriza), aristas binarias de GraphGenerator o texto "n m" + "u v w"
+    static Graph loadGraph(String archivo) throws IOException {
+        return fromEdgeArrays(CsrGraph.convertir(Paths.get(archivo), false).toUndirectedEdges());
     }
 
     static class Graph {
@@ -87,10 +103,11 @@ public class KruskalVisualGame {
             this.n=n;
         }     
 
-        public static void main(String[] args) {
+        // Uso: java KruskalVisualGame$Graph [archivo de grafo]  (sin archivo: aleatorio de 6 vértices)
+        public static void main(String[] args) throws IOException {
             Scanner sc = new Scanner(System.in); 
             Random rnd = new Random(); 
-            Graph g = randomConnectedGraph(6, 5, 1, 20, rnd);
+            Graph g = args.length > 0 ? loadGraph(args[0]) : randomConnectedGraph(6, 5, 1, 20, rnd);
             play(g, sc);
         }
 
@@ -107,7 +124,7 @@ public class KruskalVisualGame {
             System.out.println();
 
             List<Edge> sorted = new ArrayList<>(g.edges);
-            Collectors.sort(sorted);
+            Collections.sort(sorted);
             DSU dsu = new DSU(g.n);
             List<Edge> chosen = new ArrayList<>();
             int mistakes = 0; 
@@ -116,15 +133,17 @@ public class KruskalVisualGame {
             while(chosen.size() < g.n - 1 && step <= sorted.size()) { 
                 Edge e = sorted.get(step -1);
 
-                Map<Integer,List<Integer>> comps = dsu.components();
                 char groupChar = 'A';
                 StringBuilder compText = new StringBuilder();
-                for(var entry : comps.entrySet()) { 
-                    String nodes = entry.getValue()
-                    .stream().map(Object::toString)
-                    .collect(Collectors.joining(","));
-                    compText.append("[").append(groupChar++).append(": ")
-                    .append(nodes).append("] ");
+                for(int c=dsu.firstRoot; c>=0; c=dsu.nextRoot[c]) { 
+                    compText.append("[").append(groupChar++).append(": ");
+                    int[] nodes = dsu.members(c);
+                    Arrays.sort(nodes);
+                    for(int i=0; i<nodes.length; i++) { 
+                        if(i>0) compText.append(",");
+                        compText.append(nodes[i]);
+                    }
+                    compText.append("] ");
                 }
 
                 System.out.println("\n ---------------------------");
@@ -0,0 +1,182 @@
+package com.lelyliliana;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+import com.lelyliliana.KruskalTerminalGame.DSU;
+import com.lelyliliana.KruskalTerminalGame.EdgeArrays;
+import com.lelyliliana.KruskalTerminalGame.KruskalResult;
+
+/**
+ * Motores de MST paralelos, como alternativa a KruskalTerminalGame.runKruskal.
+ *
+ *  - Filter-Kruskal (Osipov, Sanders, Singler): parte las aristas alrededor de un peso
+ *    pivote, resuelve primero las livianas y, antes de ordenar las pesadas, descarta las
+ *    que ya unen vértices del mismo componente. Casi nunca ordena todas las m aristas.
+ *  - Borůvka: en cada ronda cada componente elige su arista más liviana (en paralelo,
+ *    con un mínimo atómico por componente) y se unen todas en paralelo sobre un
+ *    ConcurrentDSU; O(log n) rondas.
+ *
+ * Ambos trabajan sobre EdgeArrays y usan el mismo orden total que runKruskal(EdgeArrays)
+ * (peso, y posición para desempatar), por lo que devuelven exactamente el mismo MST.
+ * El main es un benchmark sobre grafos conexos de GraphGenerator.
+ */
+public class ParallelMst {
+
+    // por debajo de esta cantidad de aristas Filter-Kruskal ordena y aplica Kruskal directo
+    private static final int UMBRAL_BASE = 1 << 16;
+    // rangos menores a este tamaño se recorren sin streams paralelos
+    private static final int UMBRAL_PARALELO = 1 << 14;
+
+    // ======= Filter-Kruskal =======
+    static KruskalResult filterKruskal(EdgeArrays ea) {
+        KruskalResult res = new KruskalResult();
+        long[] keys = new long[ea.m];
+        for (int i = 0; i < ea.m; i++) keys[i] = ea.sortKey(i);
+        DSU dsu = new DSU(ea.n);
+        filterKruskal(ea, keys, dsu, res, new SplittableRandom(1));
+        return res;
+    }
+
+    private static void filterKruskal(EdgeArrays ea, long[] keys, DSU dsu, KruskalResult res, SplittableRandom rnd) {
+        if (res.mst.size() == ea.n - 1 || keys.length == 0) return;
+        if (keys.length <= UMBRAL_BASE) {
+            kruskalBase(ea, keys, dsu, res);
+            return;
+        }
+        long pivot = pivot(keys, rnd);
+        long[] livianas = filtrar(keys, k -> k <= pivot);
+        if (livianas.length == keys.length) { // pivote = máximo (muestra muy desafortunada)
+            kruskalBase(ea, keys, dsu, res);
+            return;
+        }
+        long[] pesadas = filtrar(keys, k -> k > pivot);
+        keys = null; // liberar antes de recursar
+        filterKruskal(ea, livianas, dsu, res, rnd);
+        livianas = null;
+        if (res.mst.size() == ea.n - 1) return;
+        // filtro: solo siguen las aristas que todavía conectan componentes distintos
+        int[] p = dsu.p;
+        long[] utiles = filtrar(pesadas, k -> {
+            int i = (int) k;
+            return raiz(p, ea.u[i]) != raiz(p, ea.v[i]);
+        });
+        pesadas = null;
+        filterKruskal(ea, utiles, dsu, res, rnd);
+    }
+
+    private static void kruskalBase(EdgeArrays ea, long[] keys, DSU dsu, KruskalResult res) {
+        Arrays.parallelSort(keys);
+        for (long k : keys) {
+            int i = (int) k;
+            if (dsu.union(ea.u[i], ea.v[i])) {
+                res.mst.add(ea.edge(i));
+                res.totalWeight += ea.w[i];
+                if (res.mst.size() == ea.n - 1) return;
+            }
+        }
+    }
+
+    // mediana de una muestra aleatoria de claves
+    private static long pivot(long[] keys, SplittableRandom rnd) {
+        long[] muestra = new long[Math.min(keys.length, 1023)];
+        for (int i = 0; i < muestra.length; i++) muestra[i] = keys[rnd.nextInt(keys.length)];
+        Arrays.sort(muestra);
+        return muestra[muestra.length / 2];
+    }
+
+    private static long[] filtrar(long[] keys, java.util.function.LongPredicate cond) {
+        if (keys.length < UMBRAL_PARALELO) return Arrays.stream(keys).filter(cond).toArray();
+        return Arrays.stream(keys).parallel().filter(cond).toArray();
+    }
+
+    // raíz sin compresión de caminos: solo lee, se puede usar desde varios hilos
+    // mientras nadie une componentes
+    private static int raiz(int[] p, int x) {
+        while (p[x] != x) x = p[x];
+        return x;
+    }
+
+    // ======= Borůvka paralelo =======
+    // Las tres fases de cada ronda son paralelas; el union-find es ConcurrentDSU.
+    static KruskalResult boruvka(EdgeArrays ea) {
+        KruskalResult res = new KruskalResult();
+        ConcurrentDSU dsu = new ConcurrentDSU(ea.n);
+        AtomicLongArray mejor = new AtomicLongArray(ea.n);
+        int[] activas = IntStream.range(0, ea.m).toArray(); // aristas que aún cruzan componentes
+
+        while (activas.length > 0 && res.mst.size() < ea.n - 1) {
+            rango(ea.n).forEach(c -> mejor.set(c, Long.MAX_VALUE));
+            // 1) cada componente se queda con su arista de menor clave (mínimo atómico)
+            int[] act = activas;
+            rango(act.length).forEach(j -> {
+                int i = act[j];
+                int cu = dsu.find(ea.u[i]), cv = dsu.find(ea.v[i]);
+                if (cu == cv) return;
+                long k = ea.sortKey(i);
+                minimoAtomico(mejor, cu, k);
+                minimoAtomico(mejor, cv, k);
+            });
+            // 2) unir las aristas elegidas (forman un bosque gracias al orden total);
+            //    si dos componentes eligieron la misma arista, solo un union tiene éxito
+            int[] elegidas = rango(ea.n).map(c -> {
+                long k = mejor.get(c);
+                if (k == Long.MAX_VALUE) return -1;
+                int i = (int) k;
+                return dsu.union(ea.u[i], ea.v[i]) ? i : -1;
+            }).filter(i -> i >= 0).toArray();
+            if (elegidas.length == 0) break; // el resto del grafo está desconectado
+            for (int i : elegidas) {
+                res.mst.add(ea.edge(i));
+                res.totalWeight += ea.w[i];
+            }
+            // 3) descartar las aristas que quedaron dentro de un componente
+            activas = (act.length < UMBRAL_PARALELO ? Arrays.stream(act) : Arrays.stream(act).parallel())
+                    .filter(i -> dsu.find(ea.u[i]) != dsu.find(ea.v[i]))
+                    .toArray();
+        }
+        return res;
+    }
+
+    private static void minimoAtomico(AtomicLongArray a, int i, long k) {
+        long actual = a.get(i);
+        while (k < actual && !a.compareAndSet(i, actual, k)) actual = a.get(i);
+    }
+
+    private static IntStream rango(int n) {
+        IntStream s = IntStream.range(0, n);
+        return n < UMBRAL_PARALELO ? s : s.parallel();
+    }
+
+    // ======= Benchmark =======
+    // Uso: java ParallelMst [n=1000000] [aristasExtra=3000000] [semilla=7]
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int extra = args.length > 1 ? Integer.parseInt(args[1]) : 3 * n;
+        long semilla = args.length > 2 ? Long.parseLong(args[2]) : 7;
+
+        System.out.println("== Benchmark MST: Kruskal secuencial vs Filter-Kruskal vs Borůvka paralelo ==");
+        long t0 = System.nanoTime();
+        EdgeArrays ea = GraphGenerator.connected(n, extra, 1, 1_000_000, semilla);
+        System.out.printf("Grafo: n = %d, m = %d (generado en %.0f ms), %d núcleos%n",
+                ea.n, ea.m, (System.nanoTime() - t0) / 1e6, Runtime.getRuntime().availableProcessors());
+
+        for (int ronda = 1; ronda <= 3; ronda++) {
+            System.out.println("-- Ronda " + ronda + " --");
+            long ref = medir("runKruskal(EdgeArrays)", () -> KruskalTerminalGame.runKruskal(ea), -1);
+            medir("filterKruskal", () -> filterKruskal(ea), ref);
+            medir("boruvka", () -> boruvka(ea), ref);
+        }
+    }
+
+    private static long medir(String nombre, java.util.function.Supplier<KruskalResult> motor, long esperado) {
+        long t0 = System.nanoTime();
+        KruskalResult r = motor.get();
+        double ms = (System.nanoTime() - t0) / 1e6;
+        System.out.printf("%-24s %10.1f ms  aristas=%d  peso=%d%n", nombre, ms, r.mst.size(), r.totalWeight);
+        if (esperado >= 0 && r.totalWeight != esperado)
+            throw new IllegalStateException(nombre + " no coincide con Kruskal secuencial");
+        return r.totalWeight;
+    }
+}
@@ -0,0 +1,336 @@
+package com.lelyliliana;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import com.lelyliliana.BlockedFloydWarshall.Result;
+
+/**
+ * Servicio de consultas de rutas por lotes sobre un resultado APSP ya calculado
+ * (dist/next de BlockedFloydWarshall, JohnsonApsp, ...).
+ *
+ *  - El resultado se guarda y se carga en binario (sin volver a calcular ni a parsear texto).
+ *  - Los pares (u, v) llegan por lotes desde un archivo o stdin; cada lote se reparte en
+ *    tramos que se responden en paralelo y se escriben en orden.
+ *  - Sin listas por consulta: la ruta se arma en un int[] reutilizado por hilo y se
+ *    formatea directo a un StringBuilder reutilizado.
+ *  - Ciclos negativos: enCiclo[w] (dist[w][w] < 0) se precalcula una vez; el chequeo de
+ *    cada vértice es O(1) y se hace durante el mismo recorrido de la ruta (sin volver a
+ *    recorrerla como touchesNegativeCycle). El recorrido se corta a los n saltos, porque
+ *    con ciclos negativos next puede formar un ciclo.
+ *
+ * Formato de salida por consulta: "u v INF", o "u v distancia: v0 v1 ... vk" y " [ciclo negativo]"
+ * si la ruta pasa por un vértice afectado.
+ */
+public class PathQueryService {
+
+    static final long INF = FloydWarshallPasoAPaso.INF;
+    static final int MAGIC = 0x41505350; // "APSP"
+    static final int VERSION = 1;
+    static final int LOTE = 1 << 16;   // pares leídos por lote
+    static final int TRAMO = 1 << 10;  // pares por tarea paralela
+
+    final int n;
+    final long[] dist;
+    final int[] next;
+    final boolean[] enCiclo;
+
+    PathQueryService(Result r) {
+        this.n = r.n;
+        this.dist = r.dist;
+        this.next = r.next;
+        this.enCiclo = new boolean[n];
+        for (int w = 0; w < n; w++) enCiclo[w] = dist[w * n + w] < 0;
+    }
+
+    // ======= Persistencia =======
+
+    static void save(Result r, Path archivo) throws IOException {
+        try (FileChannel ch = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer cab = ByteBuffer.allocate(12).putInt(MAGIC).putInt(VERSION).putInt(r.n);
+            cab.flip();
+            escribir(ch, cab);
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20);
+            for (int i = 0; i < r.dist.length; ) {
+                int c = Math.min(buf.capacity() / 8, r.dist.length - i);
+                buf.clear();
+                buf.asLongBuffer().put(r.dist, i, c);
+                buf.limit(c * 8);
+                escribir(ch, buf);
+                i += c;
+            }
+            for (int i = 0; i < r.next.length; ) {
+                int c = Math.min(buf.capacity() / 4, r.next.length - i);
+                buf.clear();
+                buf.asIntBuffer().put(r.next, i, c);
+                buf.limit(c * 4);
+                escribir(ch, buf);
+                i += c;
+            }
+        }
+    }
+
+    static PathQueryService load(Path archivo) throws IOException {
+        try (FileChannel ch = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            ByteBuffer cab = leer(ch, 0, 12);
+            if (cab.getInt() != MAGIC) throw new IOException("No es un resultado APSP: " + archivo);
+            int version = cab.getInt();
+            if (version != VERSION) throw new IOException("Versión no soportada: " + version);
+            int n = cab.getInt();
+            long celdas = (long) n * n;
+            if (ch.size() != 12 + celdas * 12) throw new IOException("Tamaño de archivo inconsistente para n = " + n);
+            long[] dist = new long[(int) celdas];
+            int[] next = new int[(int) celdas];
+            long pos = 12;
+            for (int i = 0; i < dist.length; ) {
+                int c = Math.min(1 << 17, dist.length - i);
+                leer(ch, pos, c * 8).asLongBuffer().get(dist, i, c);
+                pos += c * 8L;
+                i += c;
+            }
+            for (int i = 0; i < next.length; ) {
+                int c = Math.min(1 << 18, next.length - i);
+                leer(ch, pos, c * 4).asIntBuffer().get(next, i, c);
+                pos += c * 4L;
+                i += c;
+            }
+            return new PathQueryService(new Result(n, dist, next));
+        }
+    }
+
+    private static void escribir(FileChannel ch, ByteBuffer b) throws IOException {
+        while (b.hasRemaining()) ch.write(b);
+    }
+
+    private static ByteBuffer leer(FileChannel ch, long pos, int bytes) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(bytes);
+        while (b.hasRemaining()) {
+            if (ch.read(b, pos + b.position()) < 0) throw new EOFException("Archivo APSP truncado");
+        }
+        b.flip();
+        return b;
+    }
+
+    // ======= Consultas =======
+
+    long distancia(int u, int v) { return dist[u * n + v]; }
+
+    /** Espacio de trabajo reutilizable (uno por hilo). */
+    static final class Consulta {
+        int[] ruta = new int[16];
+        int largo;          // vértices en ruta; 0 = no hay ruta
+        boolean afectada;   // la ruta toca un vértice en un ciclo negativo
+    }
+
+    /** Llena c con la ruta u -> v; false si no hay ruta. */
+    boolean responder(int u, int v, Consulta c) {
+        c.largo = 0;
+        c.afectada = false;
+        if (dist[u * n + v] >= INF / 2 || next[u * n + v] == -1) return false;
+        int cur = u;
+        agregar(c, cur);
+        while (cur != v) {
+            cur = next[cur * n + v];
+            if (cur == -1 || c.largo > n) { c.largo = 0; return false; } // next en ciclo (ciclo negativo)
+            agregar(c, cur);
+        }
+        return true;
+    }
+
+    private void agregar(Consulta c, int w) {
+        if (c.largo == c.ruta.length) c.ruta = Arrays.copyOf(c.ruta, 2 * c.largo);
+        c.ruta[c.largo++] = w;
+        if (enCiclo[w]) c.afectada = true;
+    }
+
+    /** Agrega a 'sb' la línea de respuesta para (u, v). */
+    void formatear(int u, int v, Consulta c, StringBuilder sb) {
+        sb.append(u).append(' ').append(v).append(' ');
+        if (u < 0 || u >= n || v < 0 || v >= n) { sb.append("FUERA_DE_RANGO\n"); return; }
+        if (!responder(u, v, c)) {
+            boolean cicloEnMedio = dist[u * n + v] < INF / 2; // hay distancia pero next da vueltas
+            sb.append(cicloEnMedio ? dist[u * n + v] + " [ciclo negativo]\n" : "INF\n");
+            return;
+        }
+        sb.append(dist[u * n + v]).append(':');
+        for (int i = 0; i < c.largo; i++) sb.append(' ').append(c.ruta[i]);
+        if (c.afectada) sb.append(" [ciclo negativo]");
+        sb.append('\n');
+    }
+
+    /**
+     * Responde los pares us[i], vs[i] (i < cantidad) en paralelo y escribe las respuestas en
+     * orden. Los StringBuilder de cada tramo se reutilizan entre lotes.
+     */
+    void procesarLote(int[] us, int[] vs, int cantidad, Writer out, ForkJoinPool pool, StringBuilder[] tramos)
+            throws IOException {
+        int t = (cantidad + TRAMO - 1) / TRAMO;
+        ThreadLocal<Consulta> consultas = ThreadLocal.withInitial(Consulta::new);
+        pool.submit(() -> IntStream.range(0, t).parallel().forEach(b -> {
+            StringBuilder sb = tramos[b];
+            sb.setLength(0);
+            Consulta c = consultas.get();
+            for (int i = b * TRAMO, fin = Math.min(cantidad, i + TRAMO); i < fin; i++) formatear(us[i], vs[i], c, sb);
+        })).join();
+        for (int b = 0; b < t; b++) out.append(tramos[b]);
+    }
+
+    /** Lee pares "u v" (uno por línea) y escribe una respuesta por par. Devuelve la cantidad. */
+    long procesar(BufferedReader in, Writer out, ForkJoinPool pool) throws IOException {
+        int[] us = new int[LOTE], vs = new int[LOTE], par = new int[2];
+        StringBuilder[] tramos = new StringBuilder[(LOTE + TRAMO - 1) / TRAMO];
+        for (int i = 0; i < tramos.length; i++) tramos[i] = new StringBuilder();
+        long total = 0;
+        int k = 0;
+        String linea;
+        while ((linea = in.readLine()) != null) {
+            if (linea.isBlank()) continue;
+            if (ExternalKruskal.TextEdgeReader.parsear(linea, par) != 2)
+                throw new IOException("Línea inválida (se esperaba 'u v'): " + linea);
+            us[k] = par[0]; vs[k] = par[1];
+            if (++k == LOTE) { procesarLote(us, vs, k, out, pool, tramos); total += k; k = 0; }
+        }
+        if (k > 0) { procesarLote(us, vs, k, out, pool, tramos); total += k; }
+        out.flush();
+        return total;
+    }
+
+    // ======= Main =======
+    // Uso: java PathQueryService resolver matriz.txt resultado.apsp
+    //          (matriz en el formato de FloydWarshallPasoAPaso: N y N x N pesos o INF,
+    //           o un grafo .csrg de CsrGraph, que se carga sin pasar por la matriz)
+    //      java PathQueryService consultar resultado.apsp [pares.txt|-] [salida.txt]
+    //      java PathQueryService --bench [n=1000] [consultas=1000000]
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Uso: java PathQueryService resolver matriz.txt resultado.apsp");
+            System.out.println("     java PathQueryService consultar resultado.apsp [pares.txt|-] [salida.txt]");
+            System.out.println("     java PathQueryService --bench [n] [consultas]");
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        switch (args[0]) {
+            case "resolver": {
+                Path entrada = Paths.get(args[1]);
+                boolean csr = CsrGraph.esArchivoCsr(entrada);
+                CsrGraph g = csr ? CsrGraph.read(entrada) : null;
+                long[][] adj = csr ? null : leerMatriz(entrada);
+                long t0 = System.nanoTime();
+                Result r = csr ? JohnsonApsp.solve(g, pool) : JohnsonApsp.solve(adj, pool);
+                save(r, Paths.get(args[2]));
+                System.err.printf("APSP de %d vértices resuelto y guardado en %.2f s%n", r.n, (System.nanoTime() - t0) / 1e9);
+                break;
+            }
+            case "consultar": {
+                long t0 = System.nanoTime();
+                PathQueryService s = load(Paths.get(args[1]));
+                long t1 = System.nanoTime();
+                boolean desdeStdin = args.length < 3 || args[2].equals("-");
+                try (BufferedReader in = desdeStdin ? new BufferedReader(new InputStreamReader(System.in), 1 << 16)
+                                                    : Files.newBufferedReader(Paths.get(args[2]));
+                     Writer out = args.length > 3 ? Files.newBufferedWriter(Paths.get(args[3]))
+                                                  : new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16)) {
+                    long q = s.procesar(in, out, pool);
+                    double seg = (System.nanoTime() - t1) / 1e9;
+                    System.err.printf("Carga: %.0f ms | %d consultas en %.2f s (%.0f consultas/s)%n",
+                            (t1 - t0) / 1e6, q, seg, q / seg);
+                }
+                break;
+            }
+            case "--bench":
+                benchmark(args.length > 1 ? Integer.parseInt(args[1]) : 1000,
+                          args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000, pool);
+                break;
+            default:
+                System.out.println("Opción desconocida: " + args[0]);
+        }
+        pool.shutdown();
+    }
+
+    static long[][] leerMatriz(Path archivo) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(archivo)) {
+            StreamTokens t = new StreamTokens(in);
+            int n = Integer.parseInt(t.siguiente());
+            long[][] adj = new long[n][n];
+            for (int i = 0; i < n; i++)
+                for (int j = 0; j < n; j++) adj[i][j] = FloydWarshallPasoAPaso.parseWeight(t.siguiente());
+            return adj;
+        }
+    }
+
+    // tokens separados por espacios, línea por línea
+    private static final class StreamTokens {
+        private final BufferedReader in;
+        private String[] partes = new String[0];
+        private int i;
+        StreamTokens(BufferedReader in) { this.in = in; }
+        String siguiente() throws IOException {
+            while (i == partes.length) {
+                String linea = in.readLine();
+                if (linea == null) throw new EOFException("Faltan valores en la matriz");
+                linea = linea.trim();
+                partes = linea.isEmpty() ? new String[0] : linea.split("\\s+");
+                i = 0;
+            }
+            return partes[i++];
+        }
+    }
+
+    // ======= Benchmark =======
+    // Compara reconstructPath + touchesNegativeCycle por consulta contra el servicio por lotes.
+    private static void benchmark(int n, int q, ForkJoinPool pool) throws IOException {
+        long[][] adj = BlockedFloydWarshall.grafoAleatorio(n, 4, new Random(n));
+        Result r = BlockedFloydWarshall.run(adj);
+        Path archivo = Files.createTempFile("apsp", ".bin");
+        try {
+            save(r, archivo);
+            long t0 = System.nanoTime();
+            PathQueryService s = load(archivo);
+            System.out.printf("== Consultas de rutas: n = %d, %d consultas ==%n", n, q);
+            System.out.printf("Cargar resultado binario (%.1f MB): %.0f ms%n", Files.size(archivo) / 1e6, (System.nanoTime() - t0) / 1e6);
+
+            Random rnd = new Random(2);
+            int[] us = new int[q], vs = new int[q];
+            for (int i = 0; i < q; i++) { us[i] = rnd.nextInt(n); vs[i] = rnd.nextInt(n); }
+
+            // forma actual: una List<Integer> por consulta y segundo recorrido para el ciclo negativo
+            long[][] dist = new long[n][];
+            int[][] next = new int[n][];
+            for (int i = 0; i < n; i++) {
+                dist[i] = Arrays.copyOfRange(r.dist, i * n, (i + 1) * n);
+                next[i] = Arrays.copyOfRange(r.next, i * n, (i + 1) * n);
+            }
+            StringWriter sw1 = new StringWriter();
+            long t1 = System.nanoTime();
+            for (int i = 0; i < q; i++) {
+                int u = us[i], v = vs[i];
+                if (dist[u][v] >= INF / 2) { sw1.write(u + " " + v + " INF\n"); continue; }
+                List<Integer> path = FloydWarshallPasoAPaso.reconstructPath(u, v, next);
+                boolean neg = FloydWarshallPasoAPaso.touchesNegativeCycle(path, dist);
+                sw1.write(u + " " + v + " " + dist[u][v] + ": " + path + (neg ? " [ciclo negativo]" : "") + "\n");
+            }
+            double segLista = (System.nanoTime() - t1) / 1e9;
+
+            StringWriter sw2 = new StringWriter();
+            StringBuilder[] tramos = new StringBuilder[(LOTE + TRAMO - 1) / TRAMO];
+            for (int i = 0; i < tramos.length; i++) tramos[i] = new StringBuilder();
+            long t2 = System.nanoTime();
+            for (int i = 0; i < q; i += LOTE) {
+                int c = Math.min(LOTE, q - i);
+                s.procesarLote(Arrays.copyOfRange(us, i, i + c), Arrays.copyOfRange(vs, i, i + c), c, sw2, pool, tramos);
+            }
+            double segLote = (System.nanoTime() - t2) / 1e9;
+
+            System.out.printf("%-40s %8.2f s (%.0f consultas/s)%n", "reconstructPath + touchesNegativeCycle", segLista, q / segLista);
+            System.out.printf("%-40s %8.2f s (%.0f consultas/s)%n", "PathQueryService por lotes", segLote, q / segLote);
+        } finally {
+            Files.deleteIfExists(archivo);
+        }
+    }
+}
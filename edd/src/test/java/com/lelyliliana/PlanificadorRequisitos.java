@@ -0,0 +1,450 @@
+package com.lelyliliana;
+
+import java.util.*;
+
+/**
+ * Planificador de requisitos sobre un grafo de estados implícito.
+ *
+ * Un estado es una máscara de bits (bit k = requisito k cumplido, hasta 63 requisitos).
+ * Los requisitos y las acciones se dan como datos: cada acción tiene un costo, los bits que
+ * exige tener antes (requiere) y los que cumple. Los sucesores de un estado se generan al
+ * vuelo (estado | cumple para cada acción aplicable que agregue algo), así que el grafo de
+ * 2^k estados nunca se construye: solo existen los estados que la búsqueda toca.
+ *
+ * La búsqueda es A* (o Dijkstra con heuristica = false) con:
+ *  - un mapa estado -> id con direccionamiento abierto sobre long[] (sin boxing),
+ *  - los datos de cada estado tocado en arreglos primitivos por id (dist, padre, acción),
+ *  - un heap 4-ario indexado por id con decrease-key, como DijkstraEngine.
+ * Heurística: para cada requisito, el costo de la acción más barata que lo cumple. Si cada
+ * acción cumple un solo requisito se suman los faltantes; si no, se toma el máximo (las dos
+ * son admisibles y consistentes).
+ *
+ * Acciones con costo negativo (p. ej. devolución de créditos): A* no aplica y planificar lo
+ * rechaza; tabla() las admite con BellmanFordEngine. Como cada acción agrega al menos un
+ * bit, el grafo de estados no tiene ciclos y por lo tanto tampoco ciclos negativos.
+ */
+public class PlanificadorRequisitos {
+
+    static final int MAX_REQUISITOS = 63;
+
+    final String[] requisitos;
+    final long objetivo; // todos los requisitos
+    private int nAcciones;
+    private String[] descripcion = new String[8];
+    private double[] costo = new double[8];
+    private long[] requiere = new long[8], cumple = new long[8];
+    private final int limiteEstados;
+
+    // ---- estado de la búsqueda (reutilizado entre consultas) ----
+    private final MapaEstados ids = new MapaEstados();
+    private int nEstados;
+    private long[] estado = new long[1024];
+    private double[] dist = new double[1024], clave = new double[1024];
+    private int[] padre = new int[1024], via = new int[1024], pos = new int[1024];
+    private int[] heap = new int[1024];
+    private int tam;
+    private double[] costoBit;
+    private boolean sumar;
+
+    private static final int FUERA = -1, CERRADO = -2;
+
+    PlanificadorRequisitos(String... requisitos) {
+        this(1 << 26, requisitos);
+    }
+
+    /** limiteEstados: máximo de estados que una búsqueda puede tocar antes de abortar. */
+    PlanificadorRequisitos(int limiteEstados, String... requisitos) {
+        if (requisitos.length == 0 || requisitos.length > MAX_REQUISITOS)
+            throw new IllegalArgumentException("Se necesitan entre 1 y " + MAX_REQUISITOS + " requisitos");
+        if (limiteEstados < 1) throw new IllegalArgumentException("El límite de estados debe ser positivo");
+        this.requisitos = requisitos.clone();
+        this.objetivo = (1L << requisitos.length) - 1;
+        this.limiteEstados = limiteEstados;
+    }
+
+    int cantidadRequisitos() { return requisitos.length; }
+
+    int cantidadAcciones() { return nAcciones; }
+
+    /** Bit del requisito con ese nombre. */
+    long bit(String requisito) {
+        for (int k = 0; k < requisitos.length; k++) if (requisitos[k].equals(requisito)) return 1L << k;
+        throw new IllegalArgumentException("Requisito desconocido: " + requisito);
+    }
+
+    /** Agrega una acción que, con los bits 'requiere' ya cumplidos, cumple los bits 'cumple'. */
+    void agregarAccion(String descripcion, double costo, long cumple, long requiere) {
+        if (Double.isNaN(costo) || Double.isInfinite(costo)) throw new IllegalArgumentException("Costo inválido en la acción: " + descripcion);
+        if (cumple == 0 || (cumple & ~objetivo) != 0 || (requiere & ~objetivo) != 0)
+            throw new IllegalArgumentException("Bits de requisito inválidos en la acción: " + descripcion);
+        if (nAcciones == this.costo.length) {
+            int cap = 2 * nAcciones;
+            this.descripcion = Arrays.copyOf(this.descripcion, cap);
+            this.costo = Arrays.copyOf(this.costo, cap);
+            this.requiere = Arrays.copyOf(this.requiere, cap);
+            this.cumple = Arrays.copyOf(this.cumple, cap);
+        }
+        this.descripcion[nAcciones] = descripcion;
+        this.costo[nAcciones] = costo;
+        this.cumple[nAcciones] = cumple;
+        this.requiere[nAcciones] = requiere;
+        nAcciones++;
+        costoBit = null; // la heurística se recalcula en la próxima búsqueda
+    }
+
+    void agregarAccion(String descripcion, double costo, long cumple) {
+        agregarAccion(descripcion, costo, cumple, 0);
+    }
+
+    String descripcion(int accion) { return descripcion[accion]; }
+
+    double costo(int accion) { return costo[accion]; }
+
+    long cumple(int accion) { return cumple[accion]; }
+
+    // ======= Búsqueda =======
+
+    /** Resultado de una búsqueda: costo total y la secuencia de acciones (vacía si ya cumple). */
+    static final class Plan {
+        final long inicial;
+        final double costo;     // INF si no hay plan
+        final int[] acciones;
+        final long[] estados;   // estados[i] = estado después de acciones[i]
+        final int explorados;   // estados cerrados por la búsqueda
+
+        Plan(long inicial, double costo, int[] acciones, long[] estados, int explorados) {
+            this.inicial = inicial; this.costo = costo; this.acciones = acciones; this.estados = estados;
+            this.explorados = explorados;
+        }
+
+        boolean posible() { return costo != Double.POSITIVE_INFINITY; }
+    }
+
+    Plan planificar(long inicial) { return planificar(inicial, true); }
+
+    Plan planificar(long inicial, boolean heuristica) {
+        if ((inicial & ~objetivo) != 0) throw new IllegalArgumentException("Estado inicial con bits fuera de los requisitos");
+        for (int a = 0; a < nAcciones; a++) {
+            if (costo[a] < 0) throw new IllegalStateException("Hay acciones con costo negativo: use tabla()");
+        }
+        if (heuristica && costoBit == null) calcularHeuristica();
+        reiniciar();
+        int s = tocar(inicial, 0, -1, -1);
+        clave[s] = heuristica ? h(inicial) : 0;
+        insertar(s);
+        int cerrados = 0;
+        while (tam > 0) {
+            int u = extraerMin();
+            pos[u] = CERRADO;
+            cerrados++;
+            long eu = estado[u];
+            if ((eu & objetivo) == objetivo) return armarPlan(inicial, u, cerrados);
+            double du = dist[u];
+            for (int a = 0; a < nAcciones; a++) {
+                if ((eu & requiere[a]) != requiere[a] || (eu | cumple[a]) == eu) continue;
+                long ev = eu | cumple[a];
+                double nd = du + costo[a];
+                int v = ids.get(ev);
+                if (v < 0) {
+                    v = tocar(ev, nd, u, a);
+                    clave[v] = heuristica ? nd + h(ev) : nd;
+                    insertar(v);
+                } else if (pos[v] != CERRADO && nd < dist[v]) {
+                    dist[v] = nd; padre[v] = u; via[v] = a;
+                    clave[v] = heuristica ? nd + h(ev) : nd;
+                    subir(pos[v]);
+                }
+            }
+        }
+        return new Plan(inicial, Double.POSITIVE_INFINITY, new int[0], new long[0], cerrados);
+    }
+
+    // ======= Tabla de costo al objetivo =======
+
+    static final int MAX_REQUISITOS_TABLA = 24;
+
+    /**
+     * Costo al objetivo y primera acción para cada uno de los 2^k estados: una sola búsqueda
+     * desde el objetivo sobre el grafo de estados invertido (DijkstraEngine sobre CSR, o
+     * BellmanFordEngine si hay costos negativos).
+     * Después, el plan de cualquier estado es seguir accion/siguiente: O(largo del plan).
+     */
+    TablaPlanes tabla() {
+        int k = requisitos.length;
+        if (k > MAX_REQUISITOS_TABLA) throw new IllegalArgumentException("Demasiados requisitos para tabular: " + k);
+        int n = 1 << k;
+        long arcos = 0;
+        for (int e = 0; e < n; e++)
+            for (int a = 0; a < nAcciones; a++) if (aplicable(e, a)) arcos++;
+        if (arcos > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Demasiados arcos para tabular: " + arcos);
+        int m = (int) arcos;
+        int[] src = new int[m], dst = new int[m], accionDe = new int[m];
+        double[] w = new double[m];
+        for (int e = 0, i = 0; e < n; e++) {
+            for (int a = 0; a < nAcciones; a++) {
+                if (!aplicable(e, a)) continue;
+                src[i] = (int) (e | cumple[a]); dst[i] = e; w[i] = costo[a]; // arco invertido
+                accionDe[i++] = a;
+            }
+        }
+        // fromEdges es estable: el arco en la posición p del CSR es el p-ésimo en orden de origen
+        CsrGraph g = CsrGraph.fromEdges(n, src, dst, w, m);
+        int[] orden = new int[m];
+        int[] pos = Arrays.copyOf(g.offsets, n);
+        for (int i = 0; i < m; i++) orden[pos[src[i]]++] = accionDe[i];
+        double[] costoAl = new double[n];
+        int[] accion = new int[n];
+        boolean negativos = false;
+        for (int a = 0; a < nAcciones; a++) negativos |= costo[a] < 0;
+        if (!negativos) {
+            DijkstraEngine motor = new DijkstraEngine(g);
+            motor.run((int) objetivo);
+            for (int e = 0; e < n; e++) {
+                costoAl[e] = motor.dist(e);
+                accion[e] = motor.parentEdge(e) < 0 ? -1 : orden[motor.parentEdge(e)];
+            }
+        } else {
+            BellmanFordEngine motor = new BellmanFordEngine(g);
+            if (!motor.run((int) objetivo)) throw new IllegalStateException("Ciclo negativo en el grafo de estados");
+            for (int e = 0; e < n; e++) {
+                costoAl[e] = motor.dist(e);
+                accion[e] = motor.parentEdge(e) < 0 ? -1 : orden[motor.parentEdge(e)];
+            }
+        }
+        return new TablaPlanes(this, costoAl, accion);
+    }
+
+    private boolean aplicable(long e, int a) {
+        return (e & requiere[a]) == requiere[a] && (e | cumple[a]) != e;
+    }
+
+    static final class TablaPlanes {
+        final PlanificadorRequisitos modelo;
+        private final double[] costo;
+        private final int[] accion;
+
+        TablaPlanes(PlanificadorRequisitos modelo, double[] costo, int[] accion) {
+            this.modelo = modelo; this.costo = costo; this.accion = accion;
+        }
+
+        double costo(long estado) { return costo[(int) estado]; }
+
+        boolean posible(long estado) { return costo[(int) estado] != Double.POSITIVE_INFINITY; }
+
+        /** Primera acción del plan mínimo desde 'estado' (-1 en el objetivo o si no hay plan). */
+        int accion(long estado) { return accion[(int) estado]; }
+
+        long siguiente(long estado) { return estado | modelo.cumple[accion[(int) estado]]; }
+
+        /** Escribe las acciones del plan en 'acciones' y devuelve cuántas son (0 si no hay plan). */
+        int plan(long estado, int[] acciones) {
+            int largo = 0;
+            if (!posible(estado)) return 0;
+            for (long e = estado; accion[(int) e] >= 0; e = siguiente(e)) acciones[largo++] = accion[(int) e];
+            return largo;
+        }
+    }
+
+    private Plan armarPlan(long inicial, int meta, int cerrados) {
+        int largo = 0;
+        for (int x = meta; padre[x] != -1; x = padre[x]) largo++;
+        int[] acciones = new int[largo];
+        long[] estados = new long[largo];
+        for (int x = meta, i = largo; padre[x] != -1; x = padre[x]) {
+            acciones[--i] = via[x];
+            estados[i] = estado[x];
+        }
+        return new Plan(inicial, dist[meta], acciones, estados, cerrados);
+    }
+
+    private void calcularHeuristica() {
+        int k = requisitos.length;
+        costoBit = new double[k];
+        Arrays.fill(costoBit, Double.POSITIVE_INFINITY);
+        sumar = true;
+        for (int a = 0; a < nAcciones; a++) {
+            if (Long.bitCount(cumple[a]) > 1) sumar = false;
+            for (long c = cumple[a]; c != 0; c &= c - 1) {
+                int b = Long.numberOfTrailingZeros(c);
+                costoBit[b] = Math.min(costoBit[b], costo[a]);
+            }
+        }
+        // un requisito que ninguna acción cumple hace imposible el plan; la cota 0 lo deja a la búsqueda
+        for (int b = 0; b < k; b++) if (costoBit[b] == Double.POSITIVE_INFINITY) costoBit[b] = 0;
+    }
+
+    private double h(long e) {
+        double r = 0;
+        for (long faltan = objetivo & ~e; faltan != 0; faltan &= faltan - 1) {
+            double c = costoBit[Long.numberOfTrailingZeros(faltan)];
+            r = sumar ? r + c : Math.max(r, c);
+        }
+        return r;
+    }
+
+    // ---- estados tocados: ids consecutivos, arreglos que crecen al doble ----
+    private void reiniciar() {
+        ids.limpiar();
+        nEstados = 0;
+        tam = 0;
+    }
+
+    private int tocar(long e, double d, int p, int a) {
+        if (nEstados == limiteEstados)
+            throw new IllegalStateException("La búsqueda superó el límite de " + limiteEstados + " estados");
+        if (nEstados == estado.length) {
+            int cap = (int) Math.min(Integer.MAX_VALUE - 8, 2L * nEstados);
+            estado = Arrays.copyOf(estado, cap);
+            dist = Arrays.copyOf(dist, cap); clave = Arrays.copyOf(clave, cap);
+            padre = Arrays.copyOf(padre, cap); via = Arrays.copyOf(via, cap);
+            pos = Arrays.copyOf(pos, cap); heap = Arrays.copyOf(heap, cap);
+        }
+        int id = nEstados++;
+        ids.put(e, id);
+        estado[id] = e; dist[id] = d; padre[id] = p; via[id] = a; pos[id] = FUERA;
+        return id;
+    }
+
+    // --- heap 4-ario indexado por id (mismo esquema que DijkstraEngine) ---
+    private void insertar(int v) {
+        heap[tam] = v;
+        pos[v] = tam;
+        subir(tam++);
+    }
+
+    private int extraerMin() {
+        int min = heap[0];
+        int ultimo = heap[--tam];
+        if (tam > 0) {
+            heap[0] = ultimo;
+            pos[ultimo] = 0;
+            bajar(0);
+        }
+        return min;
+    }
+
+    private void subir(int i) {
+        int v = heap[i];
+        double cv = clave[v];
+        while (i > 0) {
+            int p = (i - 1) >>> 2;
+            if (clave[heap[p]] <= cv) break;
+            heap[i] = heap[p]; pos[heap[i]] = i;
+            i = p;
+        }
+        heap[i] = v; pos[v] = i;
+    }
+
+    private void bajar(int i) {
+        int v = heap[i];
+        double cv = clave[v];
+        while (true) {
+            int c = 4 * i + 1;
+            if (c >= tam) break;
+            int fin = Math.min(c + 4, tam), hijo = c;
+            double cm = clave[heap[c]];
+            for (int k = c + 1; k < fin; k++) {
+                if (clave[heap[k]] < cm) { cm = clave[heap[k]]; hijo = k; }
+            }
+            if (cm >= cv) break;
+            heap[i] = heap[hijo]; pos[heap[i]] = i;
+            i = hijo;
+        }
+        heap[i] = v; pos[v] = i;
+    }
+
+    // ======= Mapa estado -> id con direccionamiento abierto =======
+    // Sondeo lineal sobre long[] (vacío = -1; los estados son >= 0), factor de carga <= 1/2.
+    static final class MapaEstados {
+        private long[] claves = new long[2048];
+        private int[] valores = new int[2048];
+        private int tam, mascara = 2047;
+
+        MapaEstados() { Arrays.fill(claves, -1); }
+
+        int get(long e) {
+            int i = casilla(e);
+            while (claves[i] != -1) {
+                if (claves[i] == e) return valores[i];
+                i = (i + 1) & mascara;
+            }
+            return -1;
+        }
+
+        void put(long e, int id) {
+            if (2 * (tam + 1) > claves.length) agrandar();
+            int i = casilla(e);
+            while (claves[i] != -1 && claves[i] != e) i = (i + 1) & mascara;
+            if (claves[i] == -1) tam++;
+            claves[i] = e;
+            valores[i] = id;
+        }
+
+        int size() { return tam; }
+
+        void limpiar() {
+            if (tam > 0) Arrays.fill(claves, -1);
+            tam = 0;
+        }
+
+        private int casilla(long e) {
+            long h = e * 0x9E3779B97F4A7C15L; // Fibonacci hashing
+            return (int) (h ^ (h >>> 32)) & mascara;
+        }
+
+        private void agrandar() {
+            if (claves.length >= 1 << 30) throw new IllegalStateException("Demasiados estados para el mapa");
+            long[] viejas = claves;
+            int[] viejos = valores;
+            claves = new long[viejas.length * 2];
+            valores = new int[viejas.length * 2];
+            Arrays.fill(claves, -1);
+            mascara = claves.length - 1;
+            tam = 0;
+            for (int i = 0; i < viejas.length; i++) if (viejas[i] != -1) put(viejas[i], viejos[i]);
+        }
+    }
+
+    // ======= Benchmark =======
+    // Uso: java PlanificadorRequisitos [requisitos=30] [acciones=90] [consultas=20]
+    // Requisitos con dependencias (una acción puede exigir requisitos previos) y acciones
+    // que cumplen uno o varios: 2^k estados posibles, explorados solo en parte.
+    public static void main(String[] args) {
+        int k = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        int acciones = args.length > 1 ? Integer.parseInt(args[1]) : 3 * k;
+        int q = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        String[] nombres = new String[k];
+        for (int i = 0; i < k; i++) nombres[i] = "R" + i;
+        PlanificadorRequisitos p = new PlanificadorRequisitos(nombres);
+        Random rnd = new Random(k);
+        for (int i = 0; i < k; i++) p.agregarAccion("Cumplir R" + i, 1 + rnd.nextInt(10), 1L << i); // siempre hay plan
+        for (int i = k; i < acciones; i++) {
+            long c = 0, r = 0;
+            for (int j = 0, bits = 1 + rnd.nextInt(3); j < bits; j++) c |= 1L << rnd.nextInt(k);
+            if (rnd.nextBoolean()) r = 1L << rnd.nextInt(k);
+            p.agregarAccion("Combinada " + i, 1 + rnd.nextInt(15), c, r & ~c);
+        }
+        System.out.printf("== Planificador: %d requisitos (2^%d estados), %d acciones, %d consultas ==%n", k, k, acciones, q);
+        long[] iniciales = new long[q];
+        // estudiantes a los que les falta cerca de la mitad de los requisitos
+        for (int i = 0; i < q; i++) {
+            long e = p.objetivo;
+            for (int j = 0; j < k / 2; j++) e &= ~(1L << rnd.nextInt(k));
+            iniciales[i] = e;
+        }
+        for (int modo = 0; modo < 2; modo++) {
+            boolean heuristica = modo == 1;
+            long explorados = 0;
+            double costoTotal = 0;
+            long t0 = System.nanoTime();
+            for (long inicial : iniciales) {
+                Plan plan = p.planificar(inicial, heuristica);
+                explorados += plan.explorados;
+                costoTotal += plan.costo;
+            }
+            double seg = (System.nanoTime() - t0) / 1e9;
+            System.out.printf("%-10s %8.3f s  %12.0f estados cerrados por consulta  (costo total %.0f)%n",
+                    heuristica ? "A*" : "Dijkstra", seg, (double) explorados / q, costoTotal);
+        }
+    }
+}
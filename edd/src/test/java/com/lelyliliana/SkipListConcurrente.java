@@ -0,0 +1,247 @@
+package com.lelyliliana;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Conjunto ordenado de enteros seguro para hilos: skip list sin bloqueos (lock-free).
+ * Misma interfaz que ArbolBinarioBusqueda / ArbolAVL: insertar, eliminar, contiene, inorden.
+ *
+ * Idea (Herlihy & Shavit, "The Art of Multiprocessor Programming"):
+ *  - Cada nodo vive en varias listas enlazadas (niveles); el nivel se sortea con probabilidad 1/2.
+ *  - Eliminar = marcar los enlaces del nodo (borrado lógico) y luego desengancharlo con CAS.
+ *  - Claves int primitivas y enlaces en Object[] con VarHandle (sin AtomicMarkableReference).
+ *  - contiene no escribe nada ni reintenta: lecturas concurrentes escalan con los núcleos.
+ *
+ * El main es un benchmark multihilo contra un ArbolAVL protegido con ReentrantReadWriteLock.
+ */
+public class SkipListConcurrente {
+
+    private static final int NIVEL_MAX = 24; // suficiente para ~16 millones de claves con p = 1/2
+
+    // acceso atómico (CAS / acquire) a las casillas de los arreglos de enlaces
+    private static final VarHandle SIG = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    // ======== NODO ========
+    // La clave se guarda como long para que los centinelas queden fuera del rango de int.
+    // Cada casilla de 'sig' contiene el siguiente Nodo, o una Marca que lo envuelve cuando
+    // el nodo dueño del enlace fue borrado lógicamente. Así la lectura normal es un solo
+    // salto de puntero (sin objetos intermedios como en AtomicMarkableReference).
+    static final class Nodo {
+        final long clave;
+        final int nivelTope;
+        final Object[] sig;
+
+        Nodo(long clave, int nivelTope) {
+            this.clave = clave;
+            this.nivelTope = nivelTope;
+            this.sig = new Object[nivelTope + 1];
+        }
+    }
+
+    // enlace marcado: solo se crea al eliminar
+    static final class Marca {
+        final Nodo nodo;
+        Marca(Nodo nodo) { this.nodo = nodo; }
+    }
+
+    private static Object leer(Nodo n, int nivel) { return SIG.getAcquire(n.sig, nivel); }
+    private static Nodo ref(Object o) { return (o instanceof Marca) ? ((Marca) o).nodo : (Nodo) o; }
+    private static boolean cas(Nodo n, int nivel, Object esperado, Object nuevo) {
+        return SIG.compareAndSet(n.sig, nivel, esperado, nuevo);
+    }
+
+    private final Nodo cabeza = new Nodo(Long.MIN_VALUE, NIVEL_MAX);
+    private final Nodo cola = new Nodo(Long.MAX_VALUE, NIVEL_MAX);
+
+    public SkipListConcurrente() {
+        for (int i = 0; i <= NIVEL_MAX; i++) cabeza.sig[i] = cola;
+    }
+
+    // --- API pública ---
+    public boolean insertar(int v) {
+        int tope = nivelAleatorio();
+        Nodo[] preds = new Nodo[NIVEL_MAX + 1], succs = new Nodo[NIVEL_MAX + 1];
+        while (true) {
+            if (buscar(v, preds, succs)) return false; // no se permiten duplicados
+            Nodo nuevo = new Nodo(v, tope);
+            for (int nivel = 0; nivel <= tope; nivel++) nuevo.sig[nivel] = succs[nivel];
+            // el punto de linealización es el enlace en el nivel 0
+            if (!cas(preds[0], 0, succs[0], nuevo)) continue;
+            // enlazar los niveles superiores (pueden reintentarse si hay competencia)
+            for (int nivel = 1; nivel <= tope; nivel++) {
+                while (true) {
+                    Nodo pred = preds[nivel], succ = succs[nivel];
+                    Object actualSig = leer(nuevo, nivel);
+                    if (actualSig instanceof Marca) return true; // otro hilo ya lo está eliminando
+                    if (actualSig != succ && !cas(nuevo, nivel, actualSig, succ)) continue;
+                    if (cas(pred, nivel, succ, nuevo)) break;
+                    buscar(v, preds, succs);
+                }
+            }
+            return true;
+        }
+    }
+
+    public boolean eliminar(int v) {
+        Nodo[] preds = new Nodo[NIVEL_MAX + 1], succs = new Nodo[NIVEL_MAX + 1];
+        if (!buscar(v, preds, succs)) return false;
+        Nodo victima = succs[0];
+        // marcar de arriba hacia abajo (sin el nivel 0)
+        for (int nivel = victima.nivelTope; nivel >= 1; nivel--) {
+            Object succ = leer(victima, nivel);
+            while (!(succ instanceof Marca)) {
+                cas(victima, nivel, succ, new Marca((Nodo) succ));
+                succ = leer(victima, nivel);
+            }
+        }
+        // marcar el nivel 0: quien lo logre es quien eliminó el valor
+        while (true) {
+            Object succ = leer(victima, 0);
+            if (succ instanceof Marca) return false; // otro hilo lo eliminó primero
+            if (cas(victima, 0, succ, new Marca((Nodo) succ))) {
+                buscar(v, preds, succs); // desengancha físicamente el nodo
+                return true;
+            }
+        }
+    }
+
+    /** Sin esperas: no modifica la estructura ni reintenta. */
+    public boolean contiene(int v) {
+        Nodo pred = cabeza, curr = null;
+        for (int nivel = NIVEL_MAX; nivel >= 0; nivel--) {
+            curr = ref(leer(pred, nivel));
+            while (true) {
+                Object succ = leer(curr, nivel);
+                while (succ instanceof Marca) { // saltar nodos borrados lógicamente
+                    curr = ((Marca) succ).nodo;
+                    succ = leer(curr, nivel);
+                }
+                if (curr.clave < v) { pred = curr; curr = (Nodo) succ; }
+                else break;
+            }
+        }
+        return curr.clave == v;
+    }
+
+    public boolean estaVacio() { return inicio() == cola; }
+
+    /** Valores en orden ascendente (vista débilmente consistente si hay escrituras concurrentes). */
+    public List<Integer> inorden() {
+        List<Integer> r = new ArrayList<>();
+        for (Nodo n = inicio(); n != cola; n = siguienteVivo(n)) r.add((int) n.clave);
+        return r;
+    }
+
+    private Nodo inicio() { return siguienteVivo(cabeza); }
+
+    private Nodo siguienteVivo(Nodo n) {
+        Nodo x = ref(leer(n, 0));
+        while (x != cola && leer(x, 0) instanceof Marca) x = ref(leer(x, 0));
+        return x;
+    }
+
+    // Llena preds/succs por nivel; desengancha los nodos marcados que encuentra en el camino.
+    private boolean buscar(int v, Nodo[] preds, Nodo[] succs) {
+        reintentar:
+        while (true) {
+            Nodo pred = cabeza;
+            for (int nivel = NIVEL_MAX; nivel >= 0; nivel--) {
+                Object o = leer(pred, nivel);
+                if (o instanceof Marca) continue reintentar; // pred fue borrado mientras bajábamos
+                Nodo curr = (Nodo) o;
+                while (true) {
+                    Object succ = leer(curr, nivel);
+                    while (succ instanceof Marca) {
+                        Nodo sucesor = ((Marca) succ).nodo;
+                        if (!cas(pred, nivel, curr, sucesor)) continue reintentar;
+                        curr = sucesor;
+                        succ = leer(curr, nivel);
+                    }
+                    if (curr.clave < v) { pred = curr; curr = (Nodo) succ; }
+                    else break;
+                }
+                preds[nivel] = pred;
+                succs[nivel] = curr;
+            }
+            return succs[0].clave == v;
+        }
+    }
+
+    private static int nivelAleatorio() {
+        // cantidad de ceros finales de un entero aleatorio: geométrica con p = 1/2
+        return Math.min(Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt()), NIVEL_MAX);
+    }
+
+    // ======== BENCHMARK ========
+    // Uso: java SkipListConcurrente [duracionMs=1000] [porcentajeLecturas=90] [rangoClaves=65536]
+    public static void main(String[] args) throws InterruptedException {
+        int duracionMs = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int lecturas = args.length > 1 ? Integer.parseInt(args[1]) : 90;
+        int rango = args.length > 2 ? Integer.parseInt(args[2]) : 1 << 16;
+        int nucleos = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("== Benchmark conjunto ordenado concurrente ==");
+        System.out.printf("Duración %d ms por corrida, %d%% lecturas, claves en [0, %d), %d núcleos%n",
+                duracionMs, lecturas, rango, nucleos);
+        System.out.printf("%6s %20s %20s%n", "hilos", "SkipList (Mops/s)", "AVL+RWLock (Mops/s)");
+
+        for (int hilos = 1; hilos <= Math.max(2 * nucleos, 4); hilos *= 2) {
+            SkipListConcurrente skip = new SkipListConcurrente();
+            OperacionesInt opsSkip = new OperacionesInt() {
+                public boolean insertar(int v) { return skip.insertar(v); }
+                public boolean eliminar(int v) { return skip.eliminar(v); }
+                public boolean contiene(int v) { return skip.contiene(v); }
+            };
+            ArbolAVLMenu.ArbolAVL avl = new ArbolAVLMenu.ArbolAVL();
+            ReentrantReadWriteLock rw = new ReentrantReadWriteLock();
+            OperacionesInt opsAvl = new OperacionesInt() {
+                public boolean insertar(int v) { rw.writeLock().lock(); try { return avl.insertar(v); } finally { rw.writeLock().unlock(); } }
+                public boolean eliminar(int v) { rw.writeLock().lock(); try { return avl.eliminar(v); } finally { rw.writeLock().unlock(); } }
+                public boolean contiene(int v) { rw.readLock().lock(); try { return avl.contiene(v); } finally { rw.readLock().unlock(); } }
+            };
+            double mSkip = medir(opsSkip, hilos, duracionMs, lecturas, rango);
+            double mAvl = medir(opsAvl, hilos, duracionMs, lecturas, rango);
+            System.out.printf("%6d %20.2f %20.2f%n", hilos, mSkip, mAvl);
+        }
+    }
+
+    interface OperacionesInt {
+        boolean insertar(int v);
+        boolean eliminar(int v);
+        boolean contiene(int v);
+    }
+
+    // Precarga la mitad del rango y mide operaciones por segundo (en millones) con 'hilos' hilos.
+    private static double medir(OperacionesInt ops, int hilos, int duracionMs, int porcLecturas, int rango)
+            throws InterruptedException {
+        for (int v = 0; v < rango; v += 2) ops.insertar(v);
+        long[] conteos = new long[hilos];
+        Thread[] ts = new Thread[hilos];
+        long fin = System.nanoTime() + duracionMs * 1_000_000L;
+        for (int t = 0; t < hilos; t++) {
+            final int id = t;
+            ts[t] = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                long c = 0;
+                while ((c & 1023) != 0 || System.nanoTime() < fin) {
+                    int v = rnd.nextInt(rango);
+                    int p = rnd.nextInt(100);
+                    if (p < porcLecturas) ops.contiene(v);
+                    else if ((p & 1) == 0) ops.insertar(v);
+                    else ops.eliminar(v);
+                    c++;
+                }
+                conteos[id] = c;
+            });
+            ts[t].start();
+        }
+        for (Thread t : ts) t.join();
+        long total = 0;
+        for (long c : conteos) total += c;
+        return total / (duracionMs * 1000.0);
+    }
+}